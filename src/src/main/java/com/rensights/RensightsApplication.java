@@ -3,6 +3,7 @@ package com.rensights;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
 // Scheduling drives the delayed welcome email (WelcomeEmailScheduler).
@@ -10,6 +11,9 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 @SpringBootApplication(exclude = {FlywayAutoConfiguration.class})
 public class RensightsApplication {
     public static void main(String[] args) {
-        SpringApplication.run(RensightsApplication.class, args);
+        SpringApplication application = new SpringApplication(RensightsApplication.class);
+        // Record the startup steps (bean creation, context phases) for StartupTimelineMetrics.
+        application.setApplicationStartup(new BufferingApplicationStartup(10_000));
+        application.run(args);
     }
 }
@@ -0,0 +1,128 @@
+package com.rensights.config;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A concurrency limit that follows observed latency: how many requests may be in progress at
+ * once, rather than how many may arrive per second.
+ *
+ * <p>The limit is adjusted once per sample window (at least {@link #WINDOW_NANOS} and
+ * {@link #MIN_WINDOW_SAMPLES} requests) using the gradient between two latency averages: a
+ * long-term one (the latency when nothing queues) and the window's. While the window is no slower
+ * than {@code tolerance} times the long-term average, the limit grows by about its square root;
+ * once requests start queuing behind a slow dependency, latency rises and the gradient shrinks
+ * the limit towards what the dependency can actually serve (never by more than half per window).
+ * A window containing a failure (5xx or an exception) backs off multiplicatively instead. Changes
+ * are smoothed, and the limit only grows when it was at least half used, so a quiet period does
+ * not talk it up to {@code max}.
+ *
+ * <p>This is the Gradient2 scheme from Netflix's concurrency-limits library, cut down to what the
+ * filter needs. Admission is a compare-and-set on the in-flight count; only the once-per-request
+ * sample takes a lock.
+ */
+class AdaptiveConcurrencyLimiter {
+
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+    private static final int MIN_WINDOW_SAMPLES = 10;
+    /** Windows the long-term latency average spans. */
+    private static final int LONG_WINDOW = 600;
+    private static final double BACKOFF_RATIO = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+
+    private final AtomicInteger inflight = new AtomicInteger();
+    private volatile int limit;
+
+    // Guarded by this.
+    private double estimatedLimit;
+    private double longRttNanos;
+    private long windowStart = System.nanoTime();
+    private long windowRttSum;
+    private int windowSamples;
+    private boolean windowFailed;
+    private int windowMaxInflight;
+
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing) {
+        if (minLimit < 1 || maxLimit < minLimit || tolerance < 1 || smoothing <= 0 || smoothing > 1) {
+            throw new IllegalArgumentException("Concurrency limit needs 1 <= min <= max, tolerance >= 1, 0 < smoothing <= 1");
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.estimatedLimit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        this.limit = (int) estimatedLimit;
+    }
+
+    /** Claim a slot; every {@code true} must be followed by exactly one {@link #release}. */
+    boolean tryAcquire() {
+        while (true) {
+            int current = inflight.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (inflight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    void release(long latencyNanos, boolean failed) {
+        int inflightBefore = inflight.getAndDecrement();
+        sample(latencyNanos, failed, inflightBefore);
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    int inflight() {
+        return inflight.get();
+    }
+
+    private synchronized void sample(long latencyNanos, boolean failed, int inflightBefore) {
+        windowRttSum += latencyNanos;
+        windowSamples++;
+        windowFailed |= failed;
+        windowMaxInflight = Math.max(windowMaxInflight, inflightBefore);
+
+        long now = System.nanoTime();
+        if (now - windowStart < WINDOW_NANOS || windowSamples < MIN_WINDOW_SAMPLES) {
+            return;
+        }
+        update((double) windowRttSum / windowSamples);
+        windowStart = now;
+        windowRttSum = 0;
+        windowSamples = 0;
+        windowFailed = false;
+        windowMaxInflight = 0;
+    }
+
+    private void update(double shortRtt) {
+        if (windowFailed) {
+            estimatedLimit = Math.max(minLimit, estimatedLimit * BACKOFF_RATIO);
+            limit = (int) estimatedLimit;
+            return;
+        }
+
+        longRttNanos = longRttNanos == 0 ? shortRtt : longRttNanos + (shortRtt - longRttNanos) / LONG_WINDOW;
+        // After a long slow spell the long-term average has crept up; let it come back down
+        // quickly once latency recovers, or the next slowdown would look normal.
+        if (longRttNanos / shortRtt > 2) {
+            longRttNanos *= 0.95;
+        }
+        if (windowMaxInflight < estimatedLimit / 2) {
+            return;
+        }
+
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / shortRtt));
+        double next = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        next = estimatedLimit * (1 - smoothing) + next * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, next));
+        limit = (int) estimatedLimit;
+    }
+}
@@ -10,24 +10,16 @@ import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.FilterType;
 import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypes;
+import org.springframework.orm.jpa.persistenceunit.PersistenceManagedTypesScanner;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.springframework.beans.factory.annotation.Value;
 
-import com.rensights.model.ActivityEvent;
-import com.rensights.model.AnalysisRequest;
-import com.rensights.model.AppSetting;
-import com.rensights.model.Article;
-import com.rensights.model.Deal;
-import com.rensights.model.DealTranslation;
-import com.rensights.model.Device;
-import com.rensights.model.Invoice;
-import com.rensights.model.LandingPageContent;
-import com.rensights.model.LoginEvent;
-import com.rensights.model.Subscription;
 import com.rensights.model.User;
 
 import javax.sql.DataSource;
@@ -46,6 +38,9 @@ public class AdminDataSourceConfig {
     @Value("${spring.profiles.active:}")
     private String activeProfile;
 
+    @Value("${spring.jpa.hibernate.ddl-auto:update}")
+    private String ddlAuto;
+
     @Primary
     @Bean(name = "adminDataSourceProperties")
     @ConfigurationProperties("spring.datasource")
@@ -53,32 +48,48 @@ public class AdminDataSourceConfig {
         return new DataSourceProperties();
     }
 
+    /** Pool settings come from spring.datasource.hikari, as with Boot's own DataSource. */
     @Primary
     @Bean(name = "adminDataSource")
+    @ConfigurationProperties("spring.datasource.hikari")
     public DataSource adminDataSource(@Qualifier("adminDataSourceProperties") DataSourceProperties properties) {
         return properties.initializeDataSourceBuilder()
             .type(HikariDataSource.class)
             .build();
     }
 
+    /**
+     * Every entity in the model package. A bean rather than a package scan inside the factory so
+     * AOT processing resolves the list at build time; a native image cannot scan the classpath.
+     */
+    @Bean(name = "adminPersistenceManagedTypes")
+    public PersistenceManagedTypes adminPersistenceManagedTypes(ResourceLoader resourceLoader) {
+        return new PersistenceManagedTypesScanner(resourceLoader).scan(User.class.getPackageName());
+    }
+
     @Primary
     @Bean(name = "adminEntityManagerFactory")
     public LocalContainerEntityManagerFactoryBean adminEntityManagerFactory(
             EntityManagerFactoryBuilder builder,
-            @Qualifier("adminDataSource") DataSource dataSource) {
-        Map<String, String> properties = new HashMap<>();
+            @Qualifier("adminDataSource") DataSource dataSource,
+            @Qualifier("adminPersistenceManagedTypes") PersistenceManagedTypes managedTypes) {
+        Map<String, Object> properties = new HashMap<>();
         // Read ddl-auto from application config, default to 'update' for now
         // TODO: Change back to 'validate' after invoices table is created
-        properties.put("hibernate.hbm2ddl.auto", "update");
+        properties.put("hibernate.hbm2ddl.auto", ddlAuto);
         
         // SECURITY FIX: Only enable SQL logging in dev profile to prevent sensitive data exposure in production
         boolean isDev = activeProfile != null && activeProfile.contains("dev");
         properties.put("hibernate.format_sql", isDev ? "true" : "false");
         properties.put("hibernate.show_sql", isDev ? "true" : "false");
+
+        // Per-request statement and entity-load counts (QueryCountFilter); no-ops outside a request
+        properties.put("hibernate.session_factory.statement_inspector", QueryCounter.STATEMENT_INSPECTOR);
+        properties.put("hibernate.integrator_provider", QueryCounter.INTEGRATOR_PROVIDER);
         
         return builder
             .dataSource(dataSource)
-            .packages(User.class, Device.class, Subscription.class, AnalysisRequest.class, Invoice.class, Deal.class, DealTranslation.class, LandingPageContent.class, Article.class, AppSetting.class, LoginEvent.class, ActivityEvent.class)
+            .managedTypes(managedTypes)
             .persistenceUnit("admin")
             .properties(properties)
             .build();
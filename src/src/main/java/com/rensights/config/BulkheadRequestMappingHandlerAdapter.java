@@ -0,0 +1,102 @@
+package com.rensights.config;
+
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.MDC;
+import org.springframework.http.HttpEntity;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.context.request.async.WebAsyncTask;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+import org.springframework.web.servlet.mvc.method.annotation.ServletInvocableHandlerMethod;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs controller methods on their request class's executor ({@link RequestBulkheads}).
+ *
+ * <p>Arguments are still resolved and validated on the Tomcat thread; only the method call itself
+ * is returned as a {@link WebAsyncTask} on the class's executor, so Spring MVC starts async
+ * processing and the Tomcat thread goes back to the pool. When the call returns, the request is
+ * dispatched again and the result written as if the method had returned it directly. Spring
+ * Security carries the authentication over to the worker; the trace id and the request's query
+ * counts ({@link QueryCounter}) are carried here.
+ *
+ * <p>Only methods returning a {@code ResponseEntity} (nearly all of them) are moved: on the
+ * second dispatch the body is written by its runtime type, which is what those already rely on.
+ * Methods that go async themselves or write to the response directly stay where they are.
+ */
+class BulkheadRequestMappingHandlerAdapter extends RequestMappingHandlerAdapter {
+
+    private final RequestBulkheads bulkheads;
+
+    BulkheadRequestMappingHandlerAdapter(RequestBulkheads bulkheads) {
+        this.bulkheads = bulkheads;
+    }
+
+    @Override
+    protected ServletInvocableHandlerMethod createInvocableHandlerMethod(HandlerMethod handlerMethod) {
+        if (!HttpEntity.class.isAssignableFrom(handlerMethod.getReturnType().getParameterType())) {
+            return super.createInvocableHandlerMethod(handlerMethod);
+        }
+        return new BulkheadedHandlerMethod(handlerMethod);
+    }
+
+    /** Created per request, so the class found for the request can live in a field. */
+    private class BulkheadedHandlerMethod extends ServletInvocableHandlerMethod {
+
+        private RequestBulkheads.Bulkhead bulkhead;
+
+        BulkheadedHandlerMethod(HandlerMethod handlerMethod) {
+            super(handlerMethod);
+        }
+
+        @Override
+        public void invokeAndHandle(ServletWebRequest webRequest, ModelAndViewContainer mavContainer,
+                                    Object... providedArgs) throws Exception {
+            HttpServletRequest request = webRequest.getRequest();
+            if (request.getDispatcherType() == DispatcherType.REQUEST && request.isAsyncSupported()) {
+                bulkhead = bulkheads.classify(request);
+            }
+            super.invokeAndHandle(webRequest, mavContainer, providedArgs);
+        }
+
+        @Override
+        protected Object doInvoke(Object... args) throws Exception {
+            RequestBulkheads.Bulkhead target = bulkhead;
+            if (target == null) {
+                return super.doInvoke(args);
+            }
+            Map<String, String> mdc = MDC.getCopyOfContextMap();
+            QueryCounter.Counts queryCounts = QueryCounter.current();
+            long queuedAt = System.nanoTime();
+            Callable<Object> call = () -> {
+                target.queueWait().record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                if (mdc != null) {
+                    MDC.setContextMap(mdc);
+                }
+                if (queryCounts != null) {
+                    QueryCounter.bind(queryCounts);
+                }
+                try {
+                    return super.doInvoke(args);
+                } catch (Exception e) {
+                    // The timeout cancels the task with an interrupt, and whichever result comes
+                    // first is the one sent; make sure the client hears about the timeout.
+                    if (e instanceof InterruptedException || Thread.currentThread().isInterrupted()) {
+                        throw new AsyncRequestTimeoutException();
+                    }
+                    throw e;
+                } finally {
+                    MDC.clear();
+                    QueryCounter.clear();
+                }
+            };
+            return new WebAsyncTask<>(target.timeoutMillis(), target.executor(), call);
+        }
+    }
+}
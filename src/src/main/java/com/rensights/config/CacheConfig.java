@@ -1,106 +1,171 @@
 package com.rensights.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
 import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 
 /**
  * TTL-only Caffeine caching for read-heavy, admin-owned content.
  *
  * <p>app-backend and admin-backend share one Postgres database, and admin-backend is the ONLY
  * writer of the content cached here. app-backend therefore cannot perform event-based eviction,
- * so every cache relies on {@code expireAfterWrite} (time-based expiry) plus a bounded
- * {@code maximumSize}. Each cache gets its OWN TTL + size, so instead of a single global spec we
- * register a dedicated {@link Caffeine} instance per named cache.
+ * so every cache relies on {@code expireAfterWrite} (time-based expiry) plus a bound on memory.
+ * Each cache gets its OWN TTL + size, so instead of a single global spec we register a dedicated
+ * {@link Caffeine} instance per named cache.
+ *
+ * <p>Sizes are in bytes, not entries: one {@code dealsAll} entry is the whole deals list while a
+ * {@code languageByCode} entry is a few hundred bytes, so an entry count says little about heap
+ * use. {@code app.cache.memory-budget} is split between the caches by the percentages below
+ * (they add up to 100 with the runtime fallback), and each entry is weighed on put by
+ * {@link CacheEntryWeigher}. The budget is an estimate of retained size, not a hard heap limit.
+ *
+ * <p>Caches listed under {@code app.cache.off-heap} keep their values serialized in direct memory
+ * instead ({@link OffHeapCaffeineCache}); only their keys and small handles stay on the heap.
  *
  * <p>Any cache name requested at runtime that is not pre-registered below still works: it falls
  * back to the conservative default builder ({@link #setCaffeine} on the manager). Prefer explicit
- * registration for anything intentional.
+ * registration for anything intentional. Such caches are not bound to Micrometer (binding happens
+ * once at startup), though they still show up in {@link CacheInspectionEndpoint}.
  */
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
+    /** Percent of the budget left for caches created at runtime (the fallback builder). */
+    private static final int FALLBACK_SHARE = 5;
+
+    private final DataSize budget;
+    private final OffHeapCacheProperties offHeap;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    /** Stores of the caches configured off-heap, by cache name; filled as they are registered. */
+    private final Map<String, OffHeapSlabStore> offHeapStores = new HashMap<>();
+
+    public CacheConfig(@Value("${app.cache.memory-budget:128MB}") DataSize budget, OffHeapCacheProperties offHeap,
+                       ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.budget = budget;
+        this.offHeap = offHeap;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
     @Bean
     public CaffeineCacheManager cacheManager() {
-        CaffeineCacheManager manager = new CaffeineCacheManager();
+        CaffeineCacheManager manager = new CaffeineCacheManager() {
+            @Override
+            protected org.springframework.cache.Cache adaptCaffeineCache(String name, Cache<Object, Object> cache) {
+                OffHeapSlabStore store = offHeapStores.get(name);
+                return store == null
+                        ? super.adaptCaffeineCache(name, cache)
+                        : new OffHeapCaffeineCache(name, cache, isAllowNullValues(), store, objectMapper);
+            }
+        };
 
         // Safe fallback for any cache name used at runtime but not explicitly registered below.
+        // Every such cache gets the whole fallback share, so keep them exceptional.
+        long fallbackWeight = share(budget, FALLBACK_SHARE);
         manager.setCaffeine(Caffeine.newBuilder()
                 .expireAfterWrite(Duration.ofMinutes(5))
-                .maximumSize(100));
+                .maximumWeight(fallbackWeight)
+                .weigher(new CacheEntryWeigher("(runtime)", fallbackWeight))
+                .recordStats());
 
         // Localized UI translations, keyed by language + namespace. Short TTL so
         // edits made in the admin translation editor propagate to the public site
         // within seconds (app-backend can't be evicted by admin-backend, the writer).
-        manager.registerCustomCache("translations", Caffeine.newBuilder()
-                .expireAfterWrite(Duration.ofSeconds(30))
-                .maximumSize(200)
-                .build());
+        register(manager, "translations", Duration.ofSeconds(30), 4);
 
         // Report sections resolved per (languageCode, tier) — NOT per user.
-        manager.registerCustomCache("reportSections", Caffeine.newBuilder()
-                .expireAfterWrite(Duration.ofMinutes(10))
-                .maximumSize(60)
-                .build());
+        register(manager, "reportSections", Duration.ofMinutes(10), 4);
 
         // Single list of enabled languages.
-        manager.registerCustomCache("languagesEnabled", Caffeine.newBuilder()
-                .expireAfterWrite(Duration.ofMinutes(15))
-                .maximumSize(1)
-                .build());
+        register(manager, "languagesEnabled", Duration.ofMinutes(15), 1);
 
         // Language lookup by code.
-        manager.registerCustomCache("languageByCode", Caffeine.newBuilder()
-                .expireAfterWrite(Duration.ofMinutes(15))
-                .maximumSize(50)
-                .build());
+        register(manager, "languageByCode", Duration.ofMinutes(15), 1);
 
         // Landing page section content, keyed by section + language.
-        manager.registerCustomCache("landingSection", Caffeine.newBuilder()
-                .expireAfterWrite(Duration.ofMinutes(10))
-                .maximumSize(100)
-                .build());
+        register(manager, "landingSection", Duration.ofMinutes(10), 6);
 
         // Full landing page (all sections) per language.
-        manager.registerCustomCache("landingAll", Caffeine.newBuilder()
-                .expireAfterWrite(Duration.ofMinutes(10))
-                .maximumSize(20)
-                .build());
+        register(manager, "landingAll", Duration.ofMinutes(10), 8);
 
         // Public articles list (single entry).
-        manager.registerCustomCache("articlesList", Caffeine.newBuilder()
-                .expireAfterWrite(Duration.ofMinutes(5))
-                .maximumSize(1)
-                .build());
+        register(manager, "articlesList", Duration.ofMinutes(5), 5);
 
         // Public article by slug.
-        manager.registerCustomCache("articleBySlug", Caffeine.newBuilder()
-                .expireAfterWrite(Duration.ofMinutes(5))
-                .maximumSize(300)
-                .build());
+        register(manager, "articleBySlug", Duration.ofMinutes(5), 25);
 
         // Normalized weekly-deals list from the upstream API (single entry).
-        manager.registerCustomCache("dealsAll", Caffeine.newBuilder()
-                .expireAfterWrite(Duration.ofMinutes(10))
-                .maximumSize(1)
-                .build());
+        register(manager, "dealsAll", Duration.ofMinutes(10), 15);
 
         // Weekly-deal detail by id.
-        manager.registerCustomCache("dealDetail", Caffeine.newBuilder()
-                .expireAfterWrite(Duration.ofMinutes(10))
-                .maximumSize(500)
-                .build());
+        register(manager, "dealDetail", Duration.ofMinutes(10), 25);
 
         // Trust-critical feature kill switches — short TTL so a disable propagates fast.
-        manager.registerCustomCache("killSwitches", Caffeine.newBuilder()
-                .expireAfterWrite(Duration.ofSeconds(60))
-                .maximumSize(10)
-                .build());
+        register(manager, "killSwitches", Duration.ofSeconds(60), 1);
 
         return manager;
     }
+
+    /**
+     * A cache bounded by estimated bytes: {@code sharePercent} of the global budget, or, if it is
+     * listed under {@code app.cache.off-heap}, by the capacity of its own off-heap store.
+     *
+     * <p>Every cache records statistics: Spring Boot binds each registered cache to Micrometer
+     * ({@code cache.gets}, {@code cache.puts}, {@code cache.evictions}, {@code cache.size}, tagged
+     * {@code cache=<name>}), and {@link CacheInspectionEndpoint} reports them per cache.
+     */
+    private void register(CaffeineCacheManager manager, String name, Duration ttl, int sharePercent) {
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .recordStats();
+        DataSize offHeapCapacity = offHeap.isEnabled() ? offHeap.getCaches().get(name) : null;
+        if (offHeapCapacity == null) {
+            long maximumWeight = share(budget, sharePercent);
+            builder.maximumWeight(maximumWeight).weigher(new CacheEntryWeigher(name, maximumWeight));
+        } else {
+            OffHeapSlabStore store = new OffHeapSlabStore(offHeapCapacity.toBytes(), (int) offHeap.getBlockSize().toBytes());
+            offHeapStores.put(name, store);
+            // Values the store could not take are kept on-heap and weighed as usual.
+            CacheEntryWeigher onHeap = new CacheEntryWeigher(name, store.capacityBytes());
+            builder.maximumWeight(store.capacityBytes())
+                    .weigher((key, value) -> value instanceof OffHeapSlabStore.Handle handle
+                            ? (int) store.footprint(handle)
+                            : onHeap.weigh(key, value))
+                    // Synchronously, so blocks are back on the free list before the next put.
+                    .executor(Runnable::run)
+                    .removalListener((key, value, cause) -> {
+                        if (value instanceof OffHeapSlabStore.Handle handle) {
+                            store.free(handle);
+                        }
+                    });
+            Gauge.builder("cache.offheap.used", store, OffHeapSlabStore::usedBytes)
+                    .description("Direct memory holding this cache's values")
+                    .baseUnit("bytes")
+                    .tag("cache", name)
+                    .register(meterRegistry);
+            Gauge.builder("cache.offheap.capacity", store, OffHeapSlabStore::capacityBytes)
+                    .baseUnit("bytes")
+                    .tag("cache", name)
+                    .register(meterRegistry);
+        }
+        manager.registerCustomCache(name, builder.build());
+    }
+
+    private static long share(DataSize budget, int percent) {
+        return budget.toBytes() * percent / 100;
+    }
 }
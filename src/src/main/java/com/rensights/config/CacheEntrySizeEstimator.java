@@ -0,0 +1,127 @@
+package com.rensights.config;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.temporal.Temporal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Rough retained-size estimate, in bytes, of the values we cache.
+ *
+ * <p>Walks Strings, boxed primitives, java.time values, maps, collections, arrays, and our own
+ * DTOs (by their instance fields), assuming a 64-bit JVM with compressed oops. Anything else
+ * counts as a bare object header. It is meant for "is this cache 2 MB or 200 MB", not for
+ * exact accounting: sharing between entries is ignored and each entry is counted in full.
+ */
+public final class CacheEntrySizeEstimator {
+
+    private static final int HEADER = 16;
+    private static final int REFERENCE = 4;
+    /** HashMap.Node / LinkedHashMap.Entry plus its slot in the table. */
+    private static final int MAP_ENTRY = 40;
+    /** Deeper than any DTO we cache; stops a cyclic or pathological graph. */
+    private static final int MAX_DEPTH = 32;
+
+    private static final Map<Class<?>, List<Field>> FIELDS = new ConcurrentHashMap<>();
+
+    private CacheEntrySizeEstimator() {
+    }
+
+    public static long estimate(Object value) {
+        return estimate(value, new IdentityHashMap<>(), 0);
+    }
+
+    private static long estimate(Object value, IdentityHashMap<Object, Boolean> seen, int depth) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String s) {
+            // Latin-1 compact strings are one byte per char; anything else two.
+            return HEADER + 8 + align(16 + (long) s.length() * (isLatin1(s) ? 1 : 2));
+        }
+        if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            return HEADER + 8;
+        }
+        if (value instanceof Temporal || value instanceof UUID || value instanceof Enum<?>) {
+            return HEADER + 24;
+        }
+        if (depth >= MAX_DEPTH || seen.put(value, Boolean.TRUE) != null) {
+            return REFERENCE;
+        }
+        if (value instanceof Map<?, ?> map) {
+            long size = HEADER + 32 + (long) map.size() * MAP_ENTRY;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += estimate(entry.getKey(), seen, depth + 1) + estimate(entry.getValue(), seen, depth + 1);
+            }
+            return size;
+        }
+        if (value instanceof Collection<?> collection) {
+            long size = HEADER + 16 + align(16 + (long) collection.size() * REFERENCE);
+            for (Object element : collection) {
+                size += estimate(element, seen, depth + 1);
+            }
+            return size;
+        }
+        if (value instanceof Object[] array) {
+            long size = align(16 + (long) array.length * REFERENCE);
+            for (Object element : array) {
+                size += estimate(element, seen, depth + 1);
+            }
+            return size;
+        }
+        if (value instanceof byte[] bytes) {
+            return align(16 + bytes.length);
+        }
+        if (value.getClass().getName().startsWith("com.rensights.")) {
+            return estimateFields(value, seen, depth);
+        }
+        return HEADER;
+    }
+
+    private static long estimateFields(Object value, IdentityHashMap<Object, Boolean> seen, int depth) {
+        List<Field> fields = FIELDS.computeIfAbsent(value.getClass(), CacheEntrySizeEstimator::instanceFields);
+        long size = HEADER + (long) fields.size() * 8;
+        for (Field field : fields) {
+            if (field.getType().isPrimitive()) {
+                continue;
+            }
+            try {
+                size += estimate(field.get(value), seen, depth + 1);
+            } catch (IllegalAccessException e) {
+                // Counted as a reference only.
+            }
+        }
+        return size;
+    }
+
+    private static List<Field> instanceFields(Class<?> type) {
+        List<Field> fields = new ArrayList<>();
+        for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+            for (Field field : c.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) && field.trySetAccessible()) {
+                    fields.add(field);
+                }
+            }
+        }
+        return List.copyOf(fields);
+    }
+
+    private static boolean isLatin1(String s) {
+        for (int i = 0; i < s.length(); i++) {
+            if (s.charAt(i) > 0xFF) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long align(long bytes) {
+        return (bytes + 7) & ~7L;
+    }
+}
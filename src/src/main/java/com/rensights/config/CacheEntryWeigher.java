@@ -0,0 +1,43 @@
+package com.rensights.config;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Weighs a cache entry by its estimated size in bytes (key plus value), using
+ * {@link CacheEntrySizeEstimator}.
+ *
+ * <p>The estimator covers every value type we cache: the DTOs (ArticleDTO, LandingPageSectionDTO,
+ * ReportSectionDTO, TranslationsResponse, LanguageDTO) and DealsPayload through their fields,
+ * deal details as plain maps. Weighing runs on put only, which for these TTL caches is rare.
+ *
+ * <p>Caffeine drops an entry heavier than the whole cache as soon as it is written, which would
+ * quietly turn a single-entry cache such as {@code dealsAll} into no cache at all. That case is
+ * logged (once per cache) so the budget can be raised.
+ */
+final class CacheEntryWeigher implements Weigher<Object, Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheEntryWeigher.class);
+
+    private final String cacheName;
+    private final long maximumWeight;
+    private final AtomicBoolean warned = new AtomicBoolean();
+
+    CacheEntryWeigher(String cacheName, long maximumWeight) {
+        this.cacheName = cacheName;
+        this.maximumWeight = maximumWeight;
+    }
+
+    @Override
+    public int weigh(Object key, Object value) {
+        long bytes = CacheEntrySizeEstimator.estimate(key) + CacheEntrySizeEstimator.estimate(value);
+        if (bytes > maximumWeight && warned.compareAndSet(false, true)) {
+            logger.warn("Cache '{}': an entry of ~{} KB exceeds the cache's {} KB budget and will not be kept; "
+                    + "raise app.cache.memory-budget or this cache's share", cacheName, bytes / 1024, maximumWeight / 1024);
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,154 @@
+package com.rensights.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+
+/**
+ * {@code /actuator/cachestats}: what each application cache holds and how well it is doing, so
+ * TTLs and sizes can be set from numbers rather than guesses.
+ *
+ * <ul>
+ *   <li>{@code GET /actuator/cachestats} - every cache: size, limits, hit ratio, evictions, and
+ *       estimated memory</li>
+ *   <li>{@code GET /actuator/cachestats/{cache}} - the same for one cache</li>
+ *   <li>{@code DELETE /actuator/cachestats/{cache}[?key=...]} - drop one entry (matched on the
+ *       key's string form) or, without {@code key}, the whole cache</li>
+ * </ul>
+ *
+ * <p>Operators only (HTTP Basic with {@code app.operator.*}, see SecurityConfig): a flush makes the
+ * deals module and Postgres reload everything, not something a customer account may trigger.
+ * The counters are cumulative since startup; Prometheus has the same numbers as time series.
+ */
+@Component
+@Endpoint(id = "cachestats")
+public class CacheInspectionEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheInspectionEndpoint.class);
+
+    /** Entries sized per cache for the memory estimate; the rest is extrapolated. */
+    private static final int SIZE_SAMPLE = 100;
+
+    private final CaffeineCacheManager cacheManager;
+
+    public CacheInspectionEndpoint(CaffeineCacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * @param maximumBytes   the cache's share of {@code app.cache.memory-budget}
+     * @param estimatedBytes the weighed size for byte-bounded caches, otherwise a sampled estimate
+     */
+    public record CacheView(long size, Long maximumBytes, Duration expireAfterWrite,
+                            long hits, long misses, double hitRatio, long evictions,
+                            long estimatedBytes) {
+    }
+
+    @ReadOperation
+    public Map<String, CacheView> caches() {
+        Map<String, CacheView> views = new TreeMap<>();
+        for (String name : cacheManager.getCacheNames()) {
+            Cache<Object, Object> cache = nativeCache(name);
+            if (cache != null) {
+                views.put(name, view(cache));
+            }
+        }
+        return views;
+    }
+
+    @ReadOperation
+    public CacheView cache(@Selector String name) {
+        Cache<Object, Object> cache = nativeCache(name);
+        return cache == null ? null : view(cache);
+    }
+
+    /** @return entries removed */
+    @DeleteOperation
+    public long evict(@Selector String name, @Nullable String key) {
+        Cache<Object, Object> cache = nativeCache(name);
+        if (cache == null) {
+            return 0;
+        }
+        long removed;
+        if (key == null) {
+            removed = cache.estimatedSize();
+            cache.invalidateAll();
+        } else {
+            // Keys are mostly strings, but a few are SpEL-built composites; match on toString.
+            removed = 0;
+            Iterator<Object> keys = cache.asMap().keySet().iterator();
+            while (keys.hasNext()) {
+                if (key.equals(String.valueOf(keys.next()))) {
+                    keys.remove();
+                    removed++;
+                }
+            }
+        }
+        logger.info("Evicted {} entr{} from cache '{}'{}", removed, removed == 1 ? "y" : "ies", name,
+            key == null ? "" : " (key " + key + ")");
+        return removed;
+    }
+
+    private CacheView view(Cache<Object, Object> cache) {
+        CacheStats stats = cache.stats();
+        Policy<Object, Object> policy = cache.policy();
+        return new CacheView(
+            cache.estimatedSize(),
+            policy.eviction().filter(Policy.Eviction::isWeighted).map(Policy.Eviction::getMaximum).orElse(null),
+            policy.expireAfterWrite().map(Policy.FixedExpiration::getExpiresAfter).orElse(null),
+            stats.hitCount(),
+            stats.missCount(),
+            stats.hitRate(),
+            stats.evictionCount(),
+            bytes(cache));
+    }
+
+    private static long bytes(Cache<Object, Object> cache) {
+        Optional<Policy.Eviction<Object, Object>> eviction = cache.policy().eviction();
+        if (eviction.isPresent() && eviction.get().isWeighted()) {
+            OptionalLong weighted = eviction.get().weightedSize();
+            if (weighted.isPresent()) {
+                return weighted.getAsLong();
+            }
+        }
+        return estimateBytes(cache);
+    }
+
+    private static long estimateBytes(Cache<Object, Object> cache) {
+        long sampled = 0;
+        long bytes = 0;
+        for (Map.Entry<Object, Object> entry : cache.asMap().entrySet()) {
+            if (sampled == SIZE_SAMPLE) {
+                break;
+            }
+            bytes += CacheEntrySizeEstimator.estimate(entry.getKey()) + CacheEntrySizeEstimator.estimate(entry.getValue());
+            sampled++;
+        }
+        return sampled == 0 ? 0 : bytes * cache.estimatedSize() / sampled;
+    }
+
+    private Cache<Object, Object> nativeCache(String name) {
+        // getCache would create an unknown name on the fly; only look at caches that exist.
+        if (!cacheManager.getCacheNames().contains(name)) {
+            return null;
+        }
+        return cacheManager.getCache(name) instanceof CaffeineCache caffeine ? caffeine.getNativeCache() : null;
+    }
+}
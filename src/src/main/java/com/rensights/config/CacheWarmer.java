@@ -0,0 +1,197 @@
+package com.rensights.config;
+
+import com.rensights.dto.LanguageDTO;
+import com.rensights.model.UserTier;
+import com.rensights.repository.TranslationRepository;
+import com.rensights.service.ArticleService;
+import com.rensights.service.DealsFetchService;
+import com.rensights.service.LandingPageContentService;
+import com.rensights.service.LanguageService;
+import com.rensights.service.ReportSectionQueryService;
+import com.rensights.service.TranslationService;
+import com.rensights.service.WeeklyDealsSettingsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fills the hot caches at startup, before the pod takes traffic, so the first requests after a
+ * rollout or scale-up do not all miss at once and land on Postgres and the deals module together.
+ *
+ * <p>Runs as an {@link ApplicationRunner}: Spring Boot only marks the application ready once
+ * runners return. The chart probes {@code /actuator/health}, which does not include readiness
+ * state, so this is also a health indicator that reports OUT_OF_SERVICE until warmup has finished.
+ *
+ * <p>Caches are warmed in parallel on {@code app.cache.warmup.parallelism} threads (keep it well
+ * under the Hikari pool); keys within one cache are loaded one after another. Warming is best
+ * effort: a cache that fails, or is still loading at {@code app.cache.warmup.timeout}, is logged
+ * and left to fill on demand, and the pod goes ready anyway. Each cache's time is logged and
+ * exported as {@code cache.warmup{cache,outcome}}.
+ */
+@Component
+public class CacheWarmer implements ApplicationRunner, HealthIndicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmer.class);
+
+    private final LanguageService languageService;
+    private final TranslationService translationService;
+    private final TranslationRepository translationRepository;
+    private final LandingPageContentService landingPageContentService;
+    private final ReportSectionQueryService reportSectionQueryService;
+    private final ArticleService articleService;
+    private final WeeklyDealsSettingsService weeklyDealsSettingsService;
+    private final DealsFetchService dealsFetchService;
+    private final MeterRegistry meterRegistry;
+
+    private final boolean enabled;
+    private final List<String> caches;
+    private final int parallelism;
+    private final Duration timeout;
+
+    /** Outcome per cache once warmup has run, for the health details. */
+    private final Map<String, String> results = new ConcurrentHashMap<>();
+    private volatile boolean finished;
+
+    public CacheWarmer(LanguageService languageService, TranslationService translationService,
+                       TranslationRepository translationRepository,
+                       LandingPageContentService landingPageContentService,
+                       ReportSectionQueryService reportSectionQueryService, ArticleService articleService,
+                       WeeklyDealsSettingsService weeklyDealsSettingsService, DealsFetchService dealsFetchService,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.cache.warmup.enabled:true}") boolean enabled,
+                       @Value("${app.cache.warmup.caches:languagesEnabled,translations,landingAll,reportSections,articlesList,killSwitches,dealsAll}") List<String> caches,
+                       @Value("${app.cache.warmup.parallelism:4}") int parallelism,
+                       @Value("${app.cache.warmup.timeout:60s}") Duration timeout) {
+        this.languageService = languageService;
+        this.translationService = translationService;
+        this.translationRepository = translationRepository;
+        this.landingPageContentService = landingPageContentService;
+        this.reportSectionQueryService = reportSectionQueryService;
+        this.articleService = articleService;
+        this.weeklyDealsSettingsService = weeklyDealsSettingsService;
+        this.dealsFetchService = dealsFetchService;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.caches = caches;
+        this.parallelism = Math.max(1, parallelism);
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws InterruptedException {
+        if (!enabled || caches.isEmpty()) {
+            finished = true;
+            return;
+        }
+        Map<String, Runnable> tasks = new LinkedHashMap<>();
+        for (String cache : caches) {
+            Runnable task = task(cache.trim());
+            if (task == null) {
+                logger.warn("Cache warmup: no loader for cache '{}', skipping", cache);
+            } else {
+                tasks.put(cache.trim(), task);
+            }
+        }
+
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, tasks.size())),
+            new CustomizableThreadFactory("cache-warmup-"));
+        CountDownLatch done = new CountDownLatch(tasks.size());
+        try {
+            tasks.forEach((cache, task) -> pool.execute(() -> {
+                try {
+                    warm(cache, task);
+                } finally {
+                    done.countDown();
+                }
+            }));
+            if (!done.await(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                tasks.keySet().stream()
+                    .filter(cache -> !results.containsKey(cache))
+                    .forEach(cache -> {
+                        results.put(cache, "timeout");
+                        logger.warn("Cache warmup: '{}' still loading after {}, continuing without it", cache, timeout);
+                    });
+            }
+        } finally {
+            pool.shutdownNow();
+            finished = true;
+        }
+        logger.info("Cache warmup finished in {} ms: {}",
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), results);
+    }
+
+    private void warm(String cache, Runnable task) {
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            outcome = "failure";
+            logger.warn("Cache warmup: '{}' failed: {}", cache, e.getMessage());
+        }
+        long elapsed = System.nanoTime() - start;
+        Timer.builder("cache.warmup")
+            .description("Time to fill an application cache at startup")
+            .tag("cache", cache)
+            .tag("outcome", outcome)
+            .register(meterRegistry)
+            .record(elapsed, TimeUnit.NANOSECONDS);
+        results.putIfAbsent(cache, outcome);
+        logger.info("Cache warmup: '{}' {} in {} ms", cache, outcome, TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
+
+    /** What filling one cache means: every key the public pages ask for. */
+    private Runnable task(String cache) {
+        return switch (cache) {
+            case "languagesEnabled" -> languageService::getEnabledLanguages;
+            case "translations" -> () -> forEachLanguage(code -> translationRepository.findNamespacesByLanguageCode(code)
+                .forEach(namespace -> translationService.getTranslationsByLanguageAndNamespace(code, namespace)));
+            case "landingAll" -> () -> forEachLanguage(landingPageContentService::getAllSections);
+            case "reportSections" -> () -> forEachLanguage(code -> {
+                for (UserTier tier : UserTier.values()) {
+                    reportSectionQueryService.getSectionsForTier(code, tier);
+                }
+            });
+            case "articlesList" -> articleService::listPublic;
+            case "killSwitches" -> () -> {
+                articleService.isArticlesEnabled();
+                weeklyDealsSettingsService.isWeeklyDealsEnabled();
+            };
+            case "dealsAll" -> dealsFetchService::getDealsPayload;
+            default -> null;
+        };
+    }
+
+    private void forEachLanguage(java.util.function.Consumer<String> load) {
+        for (LanguageDTO language : languageService.getEnabledLanguages()) {
+            load.accept(language.getCode());
+        }
+    }
+
+    @Override
+    public Health health() {
+        if (!finished) {
+            return Health.outOfService().withDetail("cacheWarmup", "in progress").build();
+        }
+        return Health.up().withDetails(Map.copyOf(results)).build();
+    }
+}
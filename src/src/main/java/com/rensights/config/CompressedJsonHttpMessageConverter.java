@@ -0,0 +1,79 @@
+package com.rensights.config;
+
+import com.rensights.util.CompressedJson;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+
+/**
+ * Writes a {@link CompressedJson} body: the stored gzip bytes as-is with
+ * {@code Content-Encoding: gzip} when the request accepts gzip, otherwise decompressed.
+ *
+ * <p>Setting {@code Content-Encoding} here also keeps Tomcat's {@code server.compression} from
+ * compressing the body a second time.
+ */
+public class CompressedJsonHttpMessageConverter extends AbstractHttpMessageConverter<CompressedJson> {
+
+    public CompressedJsonHttpMessageConverter() {
+        super(MediaType.APPLICATION_JSON);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return CompressedJson.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected CompressedJson readInternal(Class<? extends CompressedJson> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("CompressedJson is a response type only", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(CompressedJson body, HttpOutputMessage outputMessage) throws IOException {
+        HttpHeaders headers = outputMessage.getHeaders();
+        headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (acceptsGzip()) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            headers.setContentLength(body.gzipped().length);
+            outputMessage.getBody().write(body.gzipped());
+        } else {
+            headers.setContentLength(body.uncompressedLength());
+            try (InputStream in = body.openUncompressed()) {
+                in.transferTo(outputMessage.getBody());
+            }
+        }
+    }
+
+    private static boolean acceptsGzip() {
+        if (!(RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes)) {
+            return false;
+        }
+        HttpServletRequest request = attributes.getRequest();
+        String accept = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (accept == null) {
+            return false;
+        }
+        for (String coding : accept.toLowerCase(Locale.ROOT).split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equals("gzip") || parts[0].trim().equals("*")) {
+                return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
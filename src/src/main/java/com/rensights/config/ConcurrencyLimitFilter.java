@@ -0,0 +1,175 @@
+package com.rensights.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Load shedding: refuses a request with 503 and {@code Retry-After} once its route group already
+ * has as many requests in progress as its adaptive limit allows ({@link AdaptiveConcurrencyLimiter}).
+ *
+ * <p>Without it, a slow Postgres or deals module makes requests pile up on Tomcat threads and the
+ * Hikari pool until all of them time out. With it, a group whose latency rises gets a lower limit,
+ * the excess is refused in microseconds, and the requests that are accepted keep a bounded
+ * latency. Groups are separate so a slow upstream only sheds its own routes.
+ *
+ * <p>Runs right after TraceIdFilter and ahead of the security chain, so a shed request costs no
+ * JWT parsing. Async requests hold their slot until the async processing completes. Actuator
+ * paths are never shed: the probes must answer while the app is overloaded.
+ *
+ * <p>Per group: {@code concurrency_limit.limit}, {@code concurrency_limit.inflight} and
+ * {@code concurrency_limit.rejected}.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+public class ConcurrencyLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrencyLimitFilter.class);
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final boolean enabled;
+    private final List<RouteGroup> groups = new ArrayList<>();
+
+    private record RouteGroup(String name, String method, List<String> paths, AdaptiveConcurrencyLimiter limiter,
+                              String retryAfterSeconds, Counter rejected) {
+    }
+
+    public ConcurrencyLimitFilter(ConcurrencyLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        for (Map.Entry<String, ConcurrencyLimitProperties.Group> entry : properties.getGroups().entrySet()) {
+            String name = entry.getKey();
+            ConcurrencyLimitProperties.Group group = entry.getValue();
+            AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(group.getInitialLimit(),
+                    group.getMinLimit(), group.getMaxLimit(), group.getTolerance(), group.getSmoothing());
+
+            Gauge.builder("concurrency_limit.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                    .description("Requests the group may currently have in progress")
+                    .tag("group", name)
+                    .register(meterRegistry);
+            Gauge.builder("concurrency_limit.inflight", limiter, AdaptiveConcurrencyLimiter::inflight)
+                    .description("Requests of the group in progress")
+                    .tag("group", name)
+                    .register(meterRegistry);
+            Counter rejected = Counter.builder("concurrency_limit.rejected")
+                    .description("Requests refused with 503 because the group was at its concurrency limit")
+                    .tag("group", name)
+                    .register(meterRegistry);
+
+            String method = group.getMethod() == null || group.getMethod().isBlank() ? null : group.getMethod();
+            String retryAfter = String.valueOf(Math.max(1, (group.getRetryAfter().toMillis() + 999) / 1000));
+            groups.add(new RouteGroup(name, method, List.copyOf(group.getPaths()), limiter, retryAfter, rejected));
+            logger.info("Concurrency limit group '{}': {} (min {}, max {}) on {} {}", name, limiter.limit(),
+                    group.getMinLimit(), group.getMaxLimit(), method == null ? "*" : method, group.getPaths());
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || "OPTIONS".equalsIgnoreCase(request.getMethod())
+                || request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RouteGroup group = match(request.getMethod(), request.getRequestURI());
+        if (group == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        AdaptiveConcurrencyLimiter limiter = group.limiter();
+        if (!limiter.tryAcquire()) {
+            group.rejected().increment();
+            logger.debug("Shedding {} {}: group '{}' at its limit of {}", request.getMethod(),
+                    request.getRequestURI(), group.name(), limiter.limit());
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setContentType("application/json");
+            response.setHeader("Retry-After", group.retryAfterSeconds());
+            response.getWriter().write("{\"error\":\"Service is busy. Please try again shortly.\"}");
+            return;
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, response);
+            failed = false;
+        } finally {
+            if (request.isAsyncStarted()) {
+                request.getAsyncContext().addListener(new ReleaseOnComplete(limiter, start));
+            } else {
+                limiter.release(System.nanoTime() - start, failed || response.getStatus() >= 500);
+            }
+        }
+    }
+
+    private RouteGroup match(String method, String path) {
+        for (RouteGroup group : groups) {
+            if (group.method() != null && !group.method().equalsIgnoreCase(method)) {
+                continue;
+            }
+            for (String pattern : group.paths()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return group;
+                }
+            }
+        }
+        return null;
+    }
+
+    /** The container calls onComplete after a timeout or error too, so that is the one release. */
+    private static final class ReleaseOnComplete implements AsyncListener {
+
+        private final AdaptiveConcurrencyLimiter limiter;
+        private final long start;
+        private volatile boolean failed;
+
+        ReleaseOnComplete(AdaptiveConcurrencyLimiter limiter, long start) {
+            this.limiter = limiter;
+            this.start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            boolean serverError = event.getSuppliedResponse() instanceof HttpServletResponse response
+                    && response.getStatus() >= 500;
+            limiter.release(System.nanoTime() - start, failed || serverError);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            failed = true;
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            // A new async cycle drops the registered listeners; stay on for the release.
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.rensights.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Adaptive concurrency limits per route group, bound from {@code app.concurrency-limit} (see
+ * application.yml and {@link AdaptiveConcurrencyLimiter}).
+ *
+ * <p>Groups match like rate limit policies: an optional HTTP method plus Ant-style paths, checked
+ * in declaration order, first match wins. A request in no group is never shed. Each group's limit
+ * starts at {@code initial-limit} and moves between {@code min-limit} and {@code max-limit}.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.concurrency-limit")
+@Getter
+@Setter
+public class ConcurrencyLimitProperties {
+
+    /** Master switch, so shedding can be turned off without a deploy. */
+    private boolean enabled = true;
+
+    private Map<String, Group> groups = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Group {
+
+        /** HTTP method the group applies to; null or blank means any method. */
+        private String method;
+
+        private List<String> paths = new ArrayList<>();
+
+        private int initialLimit = 20;
+
+        private int minLimit = 5;
+
+        private int maxLimit = 200;
+
+        /** How much slower than usual the group may get before its limit stops growing. */
+        private double tolerance = 1.5;
+
+        /** Weight of each new estimate against the current limit, 0-1. */
+        private double smoothing = 0.2;
+
+        /** Sent with a 503 as {@code Retry-After}. */
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+}
@@ -0,0 +1,107 @@
+package com.rensights.config;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+/**
+ * {@code /actuator/jfr}: profiles the live pod with Java Flight Recorder and returns the recording,
+ * for when latency spikes and the metrics only say where, not why.
+ *
+ * <ul>
+ *   <li>{@code GET /actuator/jfr[?duration=30s]} - records for {@code duration} (default
+ *       {@code app.jfr.recording.default-duration}, at most {@code max-duration}), then sends the
+ *       {@code .jfr} file; open it in JDK Mission Control or with {@code jfr print}</li>
+ * </ul>
+ *
+ * <p>Uses the JDK's {@code profile} settings: CPU samples every 10ms, allocation samples, monitor
+ * and lock waits over 10ms, and socket reads and writes over 10ms, all with stacks; a few percent
+ * overhead while it runs, nothing afterwards. A GET like {@code /actuator/heapdump}, so it is a
+ * plain {@code curl -o app.jfr}; the response only starts once the recording ends, so client and
+ * ingress timeouts need to outlast the duration. One recording at a time; another request gets
+ * 429 meanwhile.
+ *
+ * <p>Operators only (HTTP Basic with {@code app.operator.*}, see SecurityConfig); a customer JWT is
+ * not enough. The events that copy the process's environment, system properties and command
+ * lines into the recording are switched off, so the file carries no secrets from there.
+ */
+@Component
+@Endpoint(id = "jfr")
+public class FlightRecorderEndpoint {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightRecorderEndpoint.class);
+
+    /** The profile settings' events that would record JWT_SECRET, database and Stripe credentials etc. */
+    private static final List<String> SECRET_BEARING_EVENTS = List.of(
+        "jdk.InitialEnvironmentVariable",
+        "jdk.InitialSystemProperty",
+        "jdk.InitialSecurityProperty",
+        "jdk.JVMInformation",
+        "jdk.SystemProcess",
+        "jdk.ProcessStart");
+
+    private final Semaphore inProgress = new Semaphore(1);
+
+    @Value("${app.jfr.recording.default-duration:60s}")
+    private Duration defaultDuration;
+
+    @Value("${app.jfr.recording.max-duration:5m}")
+    private Duration maxDuration;
+
+    @ReadOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> record(@Nullable Duration duration)
+            throws IOException, ParseException, InterruptedException {
+        Duration length = duration == null ? defaultDuration : duration;
+        if (length.isNegative() || length.isZero()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_BAD_REQUEST);
+        }
+        if (length.compareTo(maxDuration) > 0) {
+            length = maxDuration;
+        }
+        if (!inProgress.tryAcquire()) {
+            return new WebEndpointResponse<>(WebEndpointResponse.STATUS_TOO_MANY_REQUESTS);
+        }
+
+        Path file = Files.createTempFile("rensights-", ".jfr");
+        try (Recording recording = new Recording(Configuration.getConfiguration("profile"))) {
+            recording.setName("actuator-jfr");
+            SECRET_BEARING_EVENTS.forEach(recording::disable);
+            logger.info("Starting a {}s flight recording", length.toSeconds());
+            recording.start();
+            try {
+                Thread.sleep(length.toMillis());
+            } finally {
+                recording.stop();
+            }
+            recording.dump(file);
+            logger.info("Flight recording done: {} KB", Files.size(file) / 1024);
+        } catch (IOException | ParseException | InterruptedException | RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        } finally {
+            inProgress.release();
+        }
+        // Deleted once the response has been written and the stream closed.
+        return new WebEndpointResponse<>(
+            new InputStreamResource(Files.newInputStream(file, StandardOpenOption.DELETE_ON_CLOSE)),
+            WebEndpointResponse.STATUS_OK);
+    }
+}
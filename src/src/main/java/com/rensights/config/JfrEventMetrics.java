@@ -0,0 +1,118 @@
+package com.rensights.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedClass;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Streams the JVM pauses that the JMX-based JVM metrics cannot see from Java Flight Recorder into
+ * metrics, all the time, at a cost too small to measure:
+ * <ul>
+ *   <li>{@code jvm.safepoint.sync} - time for all threads to reach a safepoint, which every
+ *       application thread spends stopped</li>
+ *   <li>{@code jvm.safepoint.operation} - the work then done while they are stopped, tagged with
+ *       the VM operation (a GC, a deoptimization, a thread dump...)</li>
+ *   <li>{@code jvm.monitor.contention} - threads blocked entering a {@code synchronized} block
+ *       for longer than {@code contention-threshold}, tagged with the monitor's class</li>
+ * </ul>
+ * GC pauses themselves are already {@code jvm.gc.pause}, from Spring Boot's JVM metrics. For a
+ * full profile of a slow period, see {@link FlightRecorderEndpoint}.
+ */
+@Component
+public class JfrEventMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(JfrEventMetrics.class);
+    private static final String SAFEPOINT_SYNC_EVENT = "jdk.SafepointStateSynchronization";
+    private static final String VM_OPERATION_EVENT = "jdk.ExecuteVMOperation";
+    private static final String MONITOR_ENTER_EVENT = "jdk.JavaMonitorEnter";
+    /** Distinct monitor classes tagged; the rest are counted as "other". */
+    private static final int MAX_MONITOR_CLASSES = 50;
+
+    private final MeterRegistry meterRegistry;
+    private final Timer safepointSync;
+    private final Set<String> monitorClasses = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    @Value("${app.jfr.metrics.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.jfr.metrics.contention-threshold:10ms}")
+    private Duration contentionThreshold;
+
+    public JfrEventMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.safepointSync = Timer.builder("jvm.safepoint.sync")
+            .description("Time for all threads to reach a safepoint")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            stream = new RecordingStream();
+        } catch (IllegalStateException | SecurityException e) {
+            // e.g. a native image built without JFR support
+            logger.warn("Flight Recorder is not available, JFR metrics are off: {}", e.getMessage());
+            return;
+        }
+        // Events are consumed as they arrive; only keep a little on disk.
+        stream.setMaxAge(Duration.ofMinutes(1));
+        stream.enable(SAFEPOINT_SYNC_EVENT);
+        stream.enable(VM_OPERATION_EVENT);
+        stream.enable(MONITOR_ENTER_EVENT).withThreshold(contentionThreshold);
+        stream.onEvent(SAFEPOINT_SYNC_EVENT, event -> safepointSync.record(event.getDuration()));
+        stream.onEvent(VM_OPERATION_EVENT, this::onVmOperation);
+        stream.onEvent(MONITOR_ENTER_EVENT, this::onMonitorEnter);
+        stream.startAsync();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onVmOperation(RecordedEvent event) {
+        if (!event.getBoolean("safepoint")) {
+            return;
+        }
+        Timer.builder("jvm.safepoint.operation")
+            .description("Time spent in VM operations while all threads were stopped at a safepoint")
+            .tag("operation", String.valueOf(event.getString("operation")))
+            .register(meterRegistry)
+            .record(event.getDuration());
+    }
+
+    private void onMonitorEnter(RecordedEvent event) {
+        RecordedClass monitorClass = event.getClass("monitorClass");
+        String name = monitorClass == null ? "unknown" : monitorClass.getName();
+        if (!monitorClasses.contains(name)) {
+            if (monitorClasses.size() < MAX_MONITOR_CLASSES) {
+                monitorClasses.add(name);
+            } else {
+                name = "other";
+            }
+        }
+        Timer.builder("jvm.monitor.contention")
+            .description("Time threads were blocked entering a synchronized block")
+            .tag("monitor_class", name)
+            .register(meterRegistry)
+            .record(event.getDuration());
+    }
+}
@@ -3,6 +3,7 @@ package com.rensights.config;
 import com.rensights.service.JwtService;
 import com.rensights.service.TokenRevocationService;
 import com.rensights.util.CookieUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.Cookie;
@@ -15,6 +16,8 @@ import org.springframework.security.authentication.UsernamePasswordAuthenticatio
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -35,6 +38,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private TokenRevocationService tokenRevocationService;
 
+    // Async dispatches (controllers run on a request class's executor) skip this filter and
+    // take the authentication from here instead; SecurityConfig reads the same repository.
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
@@ -64,15 +71,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         if (token != null) {
-            // SECURITY: Reject tokens that have been explicitly revoked (e.g. via logout)
-            if (tokenRevocationService.isTokenRevoked(token)) {
-                filterChain.doFilter(request, response);
-                return;
-            }
+            Claims claims = jwtService.parseClaims(token);
 
-            if (jwtService.validateToken(token)) {
+            // SECURITY: Reject tokens that have been explicitly revoked (e.g. via logout).
+            // Checked after the signature, so forged or expired tokens never reach the database,
+            // and by the token's own expiry, which pins the lookup to a single partition.
+            if (claims != null && !tokenRevocationService.isTokenRevoked(token,
+                    claims.getExpiration() == null ? null : claims.getExpiration().toInstant())) {
                 try {
-                    UUID userId = jwtService.getUserIdFromToken(token);
+                    UUID userId = UUID.fromString(claims.getSubject());
                     UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
                             userId.toString(),
@@ -81,6 +88,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                         );
                     authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authentication);
+                    securityContextRepository.saveContext(SecurityContextHolder.getContext(), request, response);
                 } catch (Exception e) {
                     // Invalid token, continue without authentication
                 }
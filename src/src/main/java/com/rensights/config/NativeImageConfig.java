@@ -0,0 +1,151 @@
+package com.rensights.config;
+
+import com.rensights.service.DealsFetchService;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * What a GraalVM native image of this service needs beyond what Spring AOT infers on its own
+ * (see the {@code native} profile in pom.xml). Only read by AOT processing; on the JVM it does
+ * nothing.
+ *
+ * <p>Spring already covers the beans, proxies, controller signatures, configuration properties
+ * and, through the managed-types bean in AdminDataSourceConfig, the JPA entities. The libraries
+ * with bundled metadata (Postgres driver, Hibernate, google-http-client, azure-identity) or
+ * metadata in the GraalVM reachability repository (Caffeine) need nothing here. Left over:
+ * <ul>
+ *   <li>Jackson: controllers mostly return {@code ResponseEntity<?>}, and JsonCompressor
+ *       serializes DTOs itself, so no DTO type is visible to AOT.</li>
+ *   <li>jjwt: the api jar instantiates its implementation classes by name.</li>
+ *   <li>Stripe, Microsoft Graph and the Google ID token: Gson / {@code @Key} field reflection.</li>
+ *   <li>Resilience4j fallback methods, looked up by name.</li>
+ *   <li>The email templates, read from the classpath.</li>
+ * </ul>
+ */
+@Configuration(proxyBeanMethods = false)
+@ImportRuntimeHints(NativeImageConfig.Hints.class)
+public class NativeImageConfig {
+
+    static class Hints implements RuntimeHintsRegistrar {
+
+        private static final String[] JJWT_TYPES = {
+            "io.jsonwebtoken.impl.DefaultClaimsBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtHeaderBuilder",
+            "io.jsonwebtoken.impl.DefaultJwtParserBuilder",
+            "io.jsonwebtoken.impl.io.StandardCompressionAlgorithms",
+            "io.jsonwebtoken.impl.security.KeysBridge",
+            "io.jsonwebtoken.impl.security.StandardCurves",
+            "io.jsonwebtoken.impl.security.StandardEncryptionAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardHashAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyAlgorithms",
+            "io.jsonwebtoken.impl.security.StandardKeyOperations",
+            "io.jsonwebtoken.impl.security.StandardSecureDigestAlgorithms",
+            "io.jsonwebtoken.jackson.io.JacksonSerializer",
+            "io.jsonwebtoken.jackson.io.JacksonDeserializer",
+        };
+
+        /** The Graph request and model types MicrosoftGraphEmailService sends. */
+        private static final String[] GRAPH_TYPES = {
+            "com.microsoft.graph.models.Message",
+            "com.microsoft.graph.models.ItemBody",
+            "com.microsoft.graph.models.BodyType",
+            "com.microsoft.graph.models.Recipient",
+            "com.microsoft.graph.models.EmailAddress",
+            "com.microsoft.graph.models.UserSendMailParameterSet",
+        };
+
+        private static final String[] GOOGLE_TYPES = {
+            "com.google.api.client.googleapis.auth.oauth2.GoogleIdToken$Payload",
+            "com.google.api.client.json.webtoken.JsonWebSignature$Header",
+        };
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            BindingReflectionHintsRegistrar bindings = new BindingReflectionHintsRegistrar();
+            for (Class<?> type : classesIn(classLoader, "com.rensights.dto", "com.rensights.model")) {
+                bindings.registerReflectionHints(hints.reflection(), type);
+                // CacheEntrySizeEstimator walks the fields of cached values.
+                hints.reflection().registerType(type, MemberCategory.DECLARED_FIELDS);
+            }
+            bindings.registerReflectionHints(hints.reflection(), DealsFetchService.DealsPayload.class);
+
+            for (String type : JJWT_TYPES) {
+                hints.reflection().registerType(TypeReference.of(type),
+                    MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+            hints.resources().registerPattern("META-INF/services/io.jsonwebtoken.*");
+
+            for (Class<?> type : classesIn(classLoader, "com.stripe.model", "com.stripe.param")) {
+                hints.reflection().registerType(type,
+                    MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+            }
+            Stream.of(GRAPH_TYPES, GOOGLE_TYPES).flatMap(Arrays::stream)
+                .forEach(type -> registerWithSuperclasses(hints, classLoader, type));
+
+            for (Class<?> type : classesIn(classLoader, "com.rensights")) {
+                if (hasResilienceAnnotation(type)) {
+                    hints.reflection().registerType(type, MemberCategory.INVOKE_DECLARED_METHODS);
+                }
+            }
+
+            hints.resources().registerPattern("templates/email/*.html");
+        }
+
+        /** Gson and {@code @Key} reflection also read the fields a type inherits. */
+        private static void registerWithSuperclasses(RuntimeHints hints, ClassLoader classLoader, String name) {
+            if (!ClassUtils.isPresent(name, classLoader)) {
+                return;
+            }
+            Class<?> type = ClassUtils.resolveClassName(name, classLoader);
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                hints.reflection().registerType(c,
+                    MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS);
+            }
+        }
+
+        private static boolean hasResilienceAnnotation(Class<?> type) {
+            boolean[] found = {false};
+            ReflectionUtils.doWithMethods(type, (Method method) -> found[0] = true,
+                method -> Arrays.stream(method.getDeclaredAnnotations())
+                    .anyMatch(a -> a.annotationType().getName().startsWith("io.github.resilience4j.")));
+            return found[0];
+        }
+
+        /** Every top-level or static nested class in the packages (at build time, on the JVM). */
+        private static List<Class<?>> classesIn(ClassLoader classLoader, String... packages) {
+            ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false) {
+                @Override
+                protected boolean isCandidateComponent(AnnotatedBeanDefinition definition) {
+                    return definition.getMetadata().isIndependent();
+                }
+            };
+            scanner.setResourceLoader(new DefaultResourceLoader(classLoader));
+            scanner.addIncludeFilter((reader, factory) -> true);
+            List<Class<?>> classes = new ArrayList<>();
+            for (String basePackage : packages) {
+                for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+                    classes.add(ClassUtils.resolveClassName(candidate.getBeanClassName(), classLoader));
+                }
+            }
+            return classes;
+        }
+    }
+}
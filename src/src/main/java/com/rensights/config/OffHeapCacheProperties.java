@@ -0,0 +1,34 @@
+package com.rensights.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Which caches keep their values off the Java heap, bound from {@code app.cache.off-heap}
+ * (see application.yml and {@link OffHeapCaffeineCache}).
+ *
+ * <p>A listed cache gets its own direct-memory store of the given capacity, allocated up front,
+ * in place of its share of {@code app.cache.memory-budget}. Direct memory counts against the
+ * pod limit but not the heap, so leave room for it outside {@code MaxRAMPercentage}.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.cache.off-heap")
+@Getter
+@Setter
+public class OffHeapCacheProperties {
+
+    /** Master switch; when off, every cache stays on-heap whatever {@link #caches} says. */
+    private boolean enabled = false;
+
+    /** Allocation unit; each stored value wastes up to one block. */
+    private DataSize blockSize = DataSize.ofKilobytes(4);
+
+    /** Cache name to off-heap capacity. */
+    private Map<String, DataSize> caches = new LinkedHashMap<>();
+}
@@ -0,0 +1,116 @@
+package com.rensights.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.rensights.util.CompressedJson;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.caffeine.CaffeineCache;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+
+/**
+ * A Spring cache whose values live in an {@link OffHeapSlabStore}, serialized as JSON.
+ *
+ * <p>Keys, expiry and eviction stay with the wrapped Caffeine cache; what it holds per key is
+ * only an {@link OffHeapSlabStore.Handle}, weighed by the bytes it pins off-heap. Values are
+ * written on put and deserialized on every hit, so this suits large, read-mostly payloads where
+ * a little CPU per hit buys a smaller, calmer heap - not hot small objects.
+ *
+ * <p>Values that cannot round-trip through their own class (top-level collections, whose element
+ * type is erased) or that fail to serialize, and puts that find the store full, are kept on the
+ * heap as plain Caffeine values instead, so caching never fails outright.
+ */
+final class OffHeapCaffeineCache extends CaffeineCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(OffHeapCaffeineCache.class);
+
+    private final OffHeapSlabStore store;
+    private final ObjectMapper objectMapper;
+
+    OffHeapCaffeineCache(String name, Cache<Object, Object> cache, boolean allowNullValues,
+                         OffHeapSlabStore store, ObjectMapper objectMapper) {
+        super(name, cache, allowNullValues);
+        this.store = store;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        return decode(super.lookup(key));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        // Not Caffeine's compute: a handle freed between compute and decode would read as a
+        // cached null. None of our @Cacheable methods use sync=true, so nothing relies on it.
+        Object cached = lookup(key);
+        if (cached != null) {
+            return (T) fromStoreValue(cached);
+        }
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    protected Object toStoreValue(Object userValue) {
+        Object storeValue = super.toStoreValue(userValue);
+        if (userValue == null || userValue instanceof Collection<?> || userValue.getClass().isArray()) {
+            return storeValue;
+        }
+        byte[] bytes;
+        try {
+            // Already-compressed bodies go in as their gzip bytes, not re-encoded as JSON.
+            bytes = userValue instanceof CompressedJson compressed
+                ? compressed.gzipped()
+                : objectMapper.writeValueAsBytes(userValue);
+        } catch (JsonProcessingException e) {
+            logger.warn("Cache '{}': could not serialize {}, keeping it on-heap: {}", getName(),
+                userValue.getClass().getSimpleName(), e.getMessage());
+            return storeValue;
+        }
+        OffHeapSlabStore.Handle handle = store.write(bytes, userValue.getClass());
+        if (handle == null) {
+            // Evictions are applied on the next write; run them now and try once more.
+            getNativeCache().cleanUp();
+            handle = store.write(bytes, userValue.getClass());
+        }
+        return handle == null ? storeValue : handle;
+    }
+
+    @Override
+    protected Object fromStoreValue(Object storeValue) {
+        return super.fromStoreValue(decode(storeValue));
+    }
+
+    /** Off-heap handles become values again; anything else was stored on-heap as-is. */
+    private Object decode(Object storeValue) {
+        if (!(storeValue instanceof OffHeapSlabStore.Handle handle)) {
+            return storeValue;
+        }
+        byte[] bytes = store.read(handle);
+        if (bytes == null) {
+            return null;
+        }
+        if (handle.type() == CompressedJson.class) {
+            return CompressedJson.fromGzipped(bytes);
+        }
+        try {
+            return objectMapper.readValue(bytes, handle.type());
+        } catch (IOException e) {
+            logger.warn("Cache '{}': could not read back a {}, treating as a miss: {}", getName(),
+                handle.type().getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.rensights.config;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Fixed-size blocks carved out of direct {@link ByteBuffer} slabs, for cache payloads kept off
+ * the Java heap.
+ *
+ * <p>The allocator is deliberately simple: all blocks are the same size and free ones sit on a
+ * stack, so allocation and release are O(blocks) with no fragmentation to manage. A payload
+ * takes as many blocks as it needs, in any order; the last one is partly wasted. Which payloads
+ * to keep is not decided here - the Caffeine cache in front of the store evicts by weight and
+ * releases the blocks of whatever it drops.
+ *
+ * <p>All methods synchronize on the store. A reader copies a payload out under the lock, so
+ * blocks freed by a concurrent eviction can never be read after they have been reused: the
+ * reader either gets the whole payload or, if the handle was freed first, nothing.
+ */
+final class OffHeapSlabStore {
+
+    /** Largest slab we allocate; capacities above this are split over several. */
+    private static final int MAX_SLAB_BYTES = 16 * 1024 * 1024;
+
+    /** A stored payload: where its bytes are, how many there are, and what to read them back as. */
+    static final class Handle {
+        private final int[] blocks;
+        private final int length;
+        private final Class<?> type;
+        private boolean freed;
+
+        private Handle(int[] blocks, int length, Class<?> type) {
+            this.blocks = blocks;
+            this.length = length;
+            this.type = type;
+        }
+
+        Class<?> type() {
+            return type;
+        }
+    }
+
+    private final int blockSize;
+    private final int blocksPerSlab;
+    private final ByteBuffer[] slabs;
+    private final int[] free;
+    private int freeCount;
+
+    OffHeapSlabStore(long capacityBytes, int blockSize) {
+        if (blockSize < 64 || blockSize > MAX_SLAB_BYTES) {
+            throw new IllegalArgumentException("Off-heap block size must be between 64 bytes and 16MB");
+        }
+        this.blockSize = blockSize;
+        this.blocksPerSlab = MAX_SLAB_BYTES / blockSize;
+        int totalBlocks = (int) Math.max(1, Math.min(Integer.MAX_VALUE - 8, capacityBytes / blockSize));
+        int slabCount = (totalBlocks + blocksPerSlab - 1) / blocksPerSlab;
+        this.slabs = new ByteBuffer[slabCount];
+        for (int i = 0; i < slabCount; i++) {
+            int blocks = Math.min(blocksPerSlab, totalBlocks - i * blocksPerSlab);
+            slabs[i] = ByteBuffer.allocateDirect(blocks * blockSize);
+        }
+        this.free = new int[totalBlocks];
+        // Hand out low block numbers first, so a lightly used store touches few pages.
+        for (int i = 0; i < totalBlocks; i++) {
+            free[i] = totalBlocks - 1 - i;
+        }
+        this.freeCount = totalBlocks;
+    }
+
+    /** Bytes a stored payload pins, counting the unused tail of its last block. */
+    long footprint(Handle handle) {
+        return (long) handle.blocks.length * blockSize;
+    }
+
+    /** @return null if there are not enough free blocks */
+    synchronized Handle write(byte[] data, Class<?> type) {
+        int needed = blocksFor(data.length);
+        if (needed > freeCount) {
+            return null;
+        }
+        int[] blocks = new int[needed];
+        for (int i = 0; i < needed; i++) {
+            int block = free[--freeCount];
+            blocks[i] = block;
+            int offset = i * blockSize;
+            slab(block).put(position(block), data, offset, Math.min(blockSize, data.length - offset));
+        }
+        return new Handle(blocks, data.length, type);
+    }
+
+    /** @return the payload, or null if the handle has already been freed */
+    synchronized byte[] read(Handle handle) {
+        if (handle.freed) {
+            return null;
+        }
+        byte[] data = new byte[handle.length];
+        for (int i = 0; i < handle.blocks.length; i++) {
+            int block = handle.blocks[i];
+            int offset = i * blockSize;
+            slab(block).get(position(block), data, offset, Math.min(blockSize, data.length - offset));
+        }
+        return data;
+    }
+
+    synchronized void free(Handle handle) {
+        if (handle.freed) {
+            return;
+        }
+        handle.freed = true;
+        for (int block : handle.blocks) {
+            free[freeCount++] = block;
+        }
+    }
+
+    long capacityBytes() {
+        return (long) free.length * blockSize;
+    }
+
+    synchronized long usedBytes() {
+        return (long) (free.length - freeCount) * blockSize;
+    }
+
+    private int blocksFor(int length) {
+        return Math.max(1, (length + blockSize - 1) / blockSize);
+    }
+
+    private ByteBuffer slab(int block) {
+        return slabs[block / blocksPerSlab];
+    }
+
+    private int position(int block) {
+        return (block % blocksPerSlab) * blockSize;
+    }
+}
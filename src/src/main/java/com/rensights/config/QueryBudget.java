@@ -0,0 +1,24 @@
+package com.rensights.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The most SQL statements a request to this endpoint should need, authentication included.
+ * Checked by {@link QueryBudgetAdvice}; endpoints without one get
+ * {@code app.query-budget.default-statements}.
+ *
+ * <p>Set it to what the endpoint costs with the data it is expected to serve, not to whatever it
+ * costs today: a per-row query (N+1) then shows up as soon as the rows outnumber the slack.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+    /** Maximum statements per request. */
+    int value();
+}
@@ -0,0 +1,103 @@
+package com.rensights.config;
+
+import com.rensights.exception.QueryBudgetExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Checks each request's statement count ({@link QueryCountFilter}) against its endpoint's
+ * {@link QueryBudget} just before the body is written, and adds the {@code X-Query-Count} header
+ * when {@code app.query-budget.expose-header} is on.
+ *
+ * <p>Over budget, the request is logged and counted in {@code query_budget.exceeded}; with
+ * {@code app.query-budget.mode=fail} it fails instead, so a test run that hits an endpoint turned
+ * N+1 breaks rather than the regression reaching production.
+ */
+@ControllerAdvice
+public class QueryBudgetAdvice implements ResponseBodyAdvice<Object> {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryBudgetAdvice.class);
+    static final String QUERY_COUNT_HEADER = "X-Query-Count";
+    private static final String CHECKED_ATTRIBUTE = QueryBudgetAdvice.class.getName() + ".checked";
+
+    private final QueryBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public QueryBudgetAdvice(QueryBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return properties.isEnabled();
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (!(request instanceof ServletServerHttpRequest servletRequest)) {
+            return body;
+        }
+        HttpServletRequest httpRequest = servletRequest.getServletRequest();
+        QueryCounter.Counts counts = (QueryCounter.Counts) httpRequest.getAttribute(QueryCountFilter.COUNTS_ATTRIBUTE);
+        if (counts == null) {
+            return body;
+        }
+        int statements = counts.statements();
+        if (properties.isExposeHeader()) {
+            response.getHeaders().set(QUERY_COUNT_HEADER, String.valueOf(statements));
+        }
+        // Once per request: a failed check's error response comes back through here.
+        if (httpRequest.getAttribute(CHECKED_ATTRIBUTE) == null) {
+            httpRequest.setAttribute(CHECKED_ATTRIBUTE, Boolean.TRUE);
+            checkBudget(httpRequest, statements, counts.entityLoads());
+        }
+        return body;
+    }
+
+    private void checkBudget(HttpServletRequest request, int statements, int entityLoads) {
+        int budget = budget(request);
+        if (budget <= 0 || statements <= budget) {
+            return;
+        }
+        String route = QueryCountFilter.route(request);
+        Counter.builder("query_budget.exceeded")
+            .description("Requests that ran more SQL statements than their endpoint's budget")
+            .tag("method", request.getMethod())
+            .tag("uri", route)
+            .register(meterRegistry)
+            .increment();
+        String message = String.format("%s %s ran %d SQL statements (%d entity loads), over its budget of %d",
+            request.getMethod(), route, statements, entityLoads, budget);
+        if (properties.getMode() == QueryBudgetProperties.Mode.FAIL) {
+            throw new QueryBudgetExceededException(message);
+        }
+        logger.warn("{} traceId={}", message, MDC.get("traceId"));
+    }
+
+    private int budget(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE) instanceof HandlerMethod handler) {
+            QueryBudget declared = handler.getMethodAnnotation(QueryBudget.class);
+            if (declared != null) {
+                return declared.value();
+            }
+        }
+        return properties.getDefaultStatements();
+    }
+}
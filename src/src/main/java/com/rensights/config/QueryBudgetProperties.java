@@ -0,0 +1,35 @@
+package com.rensights.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per-request query counting and budgets, bound from {@code app.query-budget} (see
+ * application.yml). Budgets are declared per endpoint with {@link QueryBudget}.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.query-budget")
+@Getter
+@Setter
+public class QueryBudgetProperties {
+
+    public enum Mode {
+        /** Log a warning and count it in {@code query_budget.exceeded}. */
+        LOG,
+        /** Fail the request with a 500, for test runs that should break on an N+1 regression. */
+        FAIL
+    }
+
+    /** Master switch for counting, the metrics, the header and the budget check. */
+    private boolean enabled = true;
+
+    /** Send the request's statement count back as {@code X-Query-Count}. */
+    private boolean exposeHeader = false;
+
+    private Mode mode = Mode.LOG;
+
+    /** Budget for endpoints without {@link QueryBudget}; 0 leaves them unchecked. */
+    private int defaultStatements = 50;
+}
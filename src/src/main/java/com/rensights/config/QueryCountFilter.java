@@ -0,0 +1,116 @@
+package com.rensights.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+/**
+ * Counts the SQL statements and entity loads of each request ({@link QueryCounter}) and records
+ * them as {@code http.server.queries} and {@code http.server.entity_loads}, tagged with the method
+ * and route like {@code http.server.requests}. Runs ahead of the security filters so the token
+ * checks are counted too. The header and the budget check are {@link QueryBudgetAdvice}'s, as
+ * they have to happen before the body is written.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 2)
+public class QueryCountFilter extends OncePerRequestFilter {
+
+    static final String COUNTS_ATTRIBUTE = QueryCountFilter.class.getName() + ".counts";
+
+    private final QueryBudgetProperties properties;
+    private final MeterRegistry meterRegistry;
+
+    public QueryCountFilter(QueryBudgetProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        // An async dispatch (see RequestBulkheads) adds to the counts of the request it continues.
+        QueryCounter.Counts counts = (QueryCounter.Counts) request.getAttribute(COUNTS_ATTRIBUTE);
+        boolean initial = counts == null;
+        if (initial) {
+            counts = new QueryCounter.Counts();
+            request.setAttribute(COUNTS_ATTRIBUTE, counts);
+        }
+
+        QueryCounter.bind(counts);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryCounter.clear();
+        }
+
+        if (!initial) {
+            return;
+        }
+        if (request.isAsyncStarted()) {
+            QueryCounter.Counts total = counts;
+            request.getAsyncContext().addListener(new AsyncListener() {
+                @Override
+                public void onComplete(AsyncEvent event) {
+                    record(request, total);
+                }
+
+                @Override
+                public void onTimeout(AsyncEvent event) {
+                }
+
+                @Override
+                public void onError(AsyncEvent event) {
+                }
+
+                @Override
+                public void onStartAsync(AsyncEvent event) {
+                }
+            });
+            return;
+        }
+        record(request, counts);
+    }
+
+    private void record(HttpServletRequest request, QueryCounter.Counts counts) {
+        Tags tags = Tags.of("method", request.getMethod(), "uri", route(request));
+        DistributionSummary.builder("http.server.queries")
+            .description("SQL statements run per request")
+            .tags(tags)
+            .register(meterRegistry)
+            .record(counts.statements());
+        DistributionSummary.builder("http.server.entity_loads")
+            .description("Entities loaded by Hibernate per request")
+            .tags(tags)
+            .register(meterRegistry)
+            .record(counts.entityLoads());
+    }
+
+    /** The matched route pattern, so /api/invoices/{invoiceId} is one series rather than one per id. */
+    static String route(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !properties.isEnabled() || request.getRequestURI().startsWith("/actuator");
+    }
+}
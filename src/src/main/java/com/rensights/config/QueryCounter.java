@@ -0,0 +1,91 @@
+package com.rensights.config;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Counts the SQL statements and entity loads of the current request, for {@link QueryCountFilter}
+ * and {@link QueryBudgetAdvice}.
+ *
+ * <p>Hibernate reports to the two hooks below (wired in {@link AdminDataSourceConfig}), which add
+ * to the {@link Counts} bound to the calling thread; @Scheduled jobs, the cache warmer and other
+ * work outside a request have none bound and are not counted. The filter binds a request's counts
+ * on the Tomcat thread, {@link BulkheadRequestMappingHandlerAdapter} on the worker running the
+ * controller. A statement is counted when it is prepared, so a JDBC batch counts once.
+ */
+final class QueryCounter {
+
+    private static final ThreadLocal<Counts> CURRENT = new ThreadLocal<>();
+
+    static final StatementInspector STATEMENT_INSPECTOR = sql -> {
+        Counts counts = CURRENT.get();
+        if (counts != null) {
+            counts.statements.incrementAndGet();
+        }
+        return sql;
+    };
+
+    static final IntegratorProvider INTEGRATOR_PROVIDER = () -> List.of(new EntityLoadIntegrator());
+
+    private QueryCounter() {
+    }
+
+    static Counts current() {
+        return CURRENT.get();
+    }
+
+    static void bind(Counts counts) {
+        CURRENT.set(counts);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    /** One request's totals; the controller may run on another thread than the filter. */
+    static final class Counts {
+
+        private final AtomicInteger statements = new AtomicInteger();
+        private final AtomicInteger entityLoads = new AtomicInteger();
+
+        int statements() {
+            return statements.get();
+        }
+
+        int entityLoads() {
+            return entityLoads.get();
+        }
+    }
+
+    /** Counts every entity Hibernate materializes, lazy associations and second-level cache hits included. */
+    private static final class EntityLoadIntegrator implements Integrator {
+
+        @Override
+        public void integrate(Metadata metadata, BootstrapContext bootstrapContext,
+                              SessionFactoryImplementor sessionFactory) {
+            PostLoadEventListener listener = event -> {
+                Counts counts = CURRENT.get();
+                if (counts != null) {
+                    counts.entityLoads.incrementAndGet();
+                }
+            };
+            sessionFactory.getServiceRegistry().requireService(EventListenerRegistry.class)
+                .appendListeners(EventType.POST_LOAD, listener);
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+    }
+}
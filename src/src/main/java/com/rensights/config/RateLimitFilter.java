@@ -1,5 +1,9 @@
 package com.rensights.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,79 +13,116 @@ import org.slf4j.LoggerFactory;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.github.benmanes.caffeine.cache.Cache;
-import com.github.benmanes.caffeine.cache.Caffeine;
-
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
- * SECURITY: Rate limiting filter to prevent brute force attacks and DoS
- * Implements sliding window rate limiting per IP address
+ * SECURITY: Rate limiting filter to prevent brute force attacks and DoS.
+ *
+ * <p>Each policy in {@link RateLimitProperties} gets its own {@link TokenBucketRateLimiter}, keyed
+ * by client IP. The expensive paths are the ones covered - bcrypt logins, sign-ups that send
+ * email, analysis submissions that write files and call the analysis module, the type-ahead
+ * lookups the form fires on every keystroke, and the Stripe webhook - so a handful of abusive
+ * clients cannot tie up the DB connections and CPU everyone else needs.
+ *
+ * <p>Rejections are counted per policy ({@code rate_limit.rejected}) so a limit that is biting
+ * legitimate users shows up on a dashboard rather than in support tickets.
  */
 @Component
 @Order(1)
 public class RateLimitFilter extends OncePerRequestFilter {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
-    
-    // Rate limit configurations - only for login and signup
-    private static final int AUTH_RATE_LIMIT = 5; // 5 requests per window for login/signup endpoints
-    private static final int AUTH_WINDOW_SECONDS = 60; // 1 minute window
-    
-    // Cache: IP address -> Request count with expiry
-    private final Cache<String, Integer> authRequestCache = Caffeine.newBuilder()
-            .expireAfterWrite(AUTH_WINDOW_SECONDS, TimeUnit.SECONDS)
-            .maximumSize(10000)
-            .build();
-    
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final boolean enabled;
+    private final List<RoutePolicy> policies = new ArrayList<>();
+
+    /** A configured policy with its live buckets and rejection counter. */
+    private record RoutePolicy(String name, String method, List<String> paths,
+                               TokenBucketRateLimiter limiter, Counter rejected) {
+    }
+
+    public RateLimitFilter(RateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        for (Map.Entry<String, RateLimitProperties.Policy> entry : properties.getPolicies().entrySet()) {
+            String name = entry.getKey();
+            RateLimitProperties.Policy policy = entry.getValue();
+            TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(
+                    policy.getCapacity(), policy.getRefillTokens(), policy.getRefillPeriod(),
+                    properties.getMaxTrackedKeys());
+
+            Counter rejected = Counter.builder("rate_limit.rejected")
+                    .description("Requests refused with 429 by the rate limiter")
+                    .tag("policy", name)
+                    .register(meterRegistry);
+            Gauge.builder("rate_limit.tracked_clients", limiter, TokenBucketRateLimiter::trackedKeys)
+                    .description("Client keys currently holding a bucket")
+                    .tag("policy", name)
+                    .register(meterRegistry);
+            CaffeineCacheMetrics.monitor(meterRegistry, limiter.buckets(), "rateLimit." + name);
+
+            String method = policy.getMethod() == null || policy.getMethod().isBlank() ? null : policy.getMethod();
+            policies.add(new RoutePolicy(name, method, List.copyOf(policy.getPaths()), limiter, rejected));
+            logger.info("Rate limit policy '{}': {} burst, {} per {} on {} {}", name, policy.getCapacity(),
+                    policy.getRefillTokens(), policy.getRefillPeriod(), method == null ? "*" : method, policy.getPaths());
+        }
+    }
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        
+
         // Skip rate limiting for OPTIONS requests (CORS preflight)
-        if ("OPTIONS".equalsIgnoreCase(request.getMethod())) {
+        if (!enabled || "OPTIONS".equalsIgnoreCase(request.getMethod())) {
             filterChain.doFilter(request, response);
             return;
         }
-        
-        String clientIp = getClientIpAddress(request);
+
         String path = request.getRequestURI();
-        
-        // Apply rate limiting ONLY to login and signup endpoints
-        if (path.equals("/api/auth/login") || path.equals("/api/auth/register") || path.equals("/api/auth/google")) {
-            if (!checkRateLimit(clientIp, authRequestCache, AUTH_RATE_LIMIT, "login/signup")) {
-                logger.warn("SECURITY ALERT: Rate limit exceeded for IP {} on path {}", clientIp, path);
-                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
-                response.setContentType("application/json");
-                response.setHeader("Retry-After", String.valueOf(AUTH_WINDOW_SECONDS));
-                response.getWriter().write("{\"error\":\"Too many requests. Please try again later.\"}");
-                return;
-            }
+        RoutePolicy policy = match(request.getMethod(), path);
+        if (policy == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String clientIp = getClientIpAddress(request);
+        long waitNanos = policy.limiter().tryAcquire(clientIp);
+        if (waitNanos > 0) {
+            policy.rejected().increment();
+            logger.warn("SECURITY ALERT: Rate limit '{}' exceeded for IP {} on path {}", policy.name(), clientIp, path);
+            // Round up: telling a client to come back a second early just earns it another 429.
+            long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setContentType("application/json");
+            response.setHeader("Retry-After", String.valueOf(retryAfterSeconds));
+            response.getWriter().write("{\"error\":\"Too many requests. Please try again later.\"}");
+            return;
         }
-        // All other endpoints (including password reset, verification, etc.) are not rate limited
-        
+
         filterChain.doFilter(request, response);
     }
-    
-    private boolean checkRateLimit(String key, Cache<String, Integer> cache, int limit, String type) {
-        Integer count = cache.getIfPresent(key);
-        
-        if (count == null) {
-            cache.put(key, 1);
-            return true;
-        }
-        
-        if (count >= limit) {
-            return false;
+
+    private RoutePolicy match(String method, String path) {
+        for (RoutePolicy policy : policies) {
+            if (policy.method() != null && !policy.method().equalsIgnoreCase(method)) {
+                continue;
+            }
+            for (String pattern : policy.paths()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return policy;
+                }
+            }
         }
-        
-        cache.put(key, count + 1);
-        return true;
+        return null;
     }
-    
+
     private String getClientIpAddress(HttpServletRequest request) {
         String remoteAddr = request.getRemoteAddr();
         // Only trust X-Forwarded-For if connection comes from a private/loopback address (i.e., a proxy)
@@ -103,7 +144,3 @@ public class RateLimitFilter extends OncePerRequestFilter {
                 || ip.equals("127.0.0.1") || ip.equals("::1") || ip.equals("0:0:0:0:0:0:0:1");
     }
 }
-
-
-
-
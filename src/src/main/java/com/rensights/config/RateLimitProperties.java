@@ -0,0 +1,51 @@
+package com.rensights.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-route rate limit policies, bound from {@code app.rate-limit} (see application.yml).
+ *
+ * <p>Each policy names the requests it covers (an optional HTTP method plus Ant-style paths) and
+ * the token bucket that throttles them: {@code capacity} is the burst a client may spend at once,
+ * and {@code refill-tokens} per {@code refill-period} is the sustained rate. Policies are checked
+ * in declaration order and the first match wins; a request that matches none is not limited.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.rate-limit")
+@Getter
+@Setter
+public class RateLimitProperties {
+
+    /** Master switch, so a misbehaving limit can be turned off without a deploy. */
+    private boolean enabled = true;
+
+    /** Upper bound on tracked clients per policy; the least recently seen are dropped first. */
+    private long maxTrackedKeys = 100_000;
+
+    private Map<String, Policy> policies = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Policy {
+
+        /** HTTP method the policy applies to; null or blank means any method. */
+        private String method;
+
+        private List<String> paths = new ArrayList<>();
+
+        private int capacity = 5;
+
+        private int refillTokens = 5;
+
+        private Duration refillPeriod = Duration.ofMinutes(1);
+    }
+}
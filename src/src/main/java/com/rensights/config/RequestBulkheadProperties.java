@@ -0,0 +1,52 @@
+package com.rensights.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Request classes and their executors, bound from {@code app.request-bulkhead} (see
+ * application.yml and {@link RequestBulkheads}).
+ *
+ * <p>Classes match like rate limit policies: HTTP methods plus Ant-style paths, checked in
+ * declaration order, first match wins. Each class runs its controllers on {@code threads} workers
+ * with up to {@code queue} requests waiting. A request in no class stays on the Tomcat thread.
+ */
+@Component
+@ConfigurationProperties(prefix = "app.request-bulkhead")
+@Getter
+@Setter
+public class RequestBulkheadProperties {
+
+    /** Master switch; off means every controller runs on the Tomcat thread as before. */
+    private boolean enabled = true;
+
+    private Map<String, RequestClass> classes = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class RequestClass {
+
+        /** HTTP methods the class applies to; empty means any method. */
+        private List<String> methods = new ArrayList<>();
+
+        private List<String> paths = new ArrayList<>();
+
+        private int threads = 10;
+
+        private int queue = 100;
+
+        /** How long a request may wait and run before it is answered with 503. */
+        private Duration timeout = Duration.ofSeconds(30);
+
+        /** Sent with a 503 as {@code Retry-After} when the queue is full. */
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+}
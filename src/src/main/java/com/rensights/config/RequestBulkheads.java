@@ -0,0 +1,133 @@
+package com.rensights.config;
+
+import com.rensights.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One bounded executor per request class (public content, authenticated reads, upstream proxies,
+ * writes, webhooks - see {@link RequestBulkheadProperties}), so a class waiting on something slow
+ * can only use up its own threads. Before this, a burst of deal requests waiting on the deals
+ * module, or analysis submissions waiting on file writes, could hold every Tomcat worker and
+ * stall translations, logins and Stripe webhooks with them.
+ *
+ * <p>The executors are used by {@link BulkheadRequestMappingHandlerAdapter}, which hands the
+ * controller call to the request's class through Spring MVC async processing and frees the Tomcat
+ * thread meanwhile. A full queue fails the submit with {@link ServiceBusyException} (503 with
+ * {@code Retry-After}) instead of letting requests wait behind it.
+ *
+ * <p>Per class: {@code executor.*} metrics (tags {@code name=http.bulkhead} and {@code class}),
+ * {@code http.bulkhead.queue_wait} and {@code http.bulkhead.rejected}.
+ */
+@Component
+public class RequestBulkheads {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestBulkheads.class);
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final boolean enabled;
+    private final List<Bulkhead> bulkheads = new ArrayList<>();
+    private final List<ThreadPoolExecutor> executors = new ArrayList<>();
+
+    record Bulkhead(String name, List<String> methods, List<String> paths, AsyncTaskExecutor executor,
+                    long timeoutMillis, Timer queueWait) {
+    }
+
+    public RequestBulkheads(RequestBulkheadProperties properties, MeterRegistry meterRegistry, Environment environment) {
+        this.enabled = properties.isEnabled();
+        if (!enabled) {
+            return;
+        }
+        // With spring.threads.virtual.enabled (Java 21+) the workers are virtual threads, like
+        // Tomcat's; the pool size then only caps how many of the class run at once.
+        boolean virtual = Threading.VIRTUAL.isActive(environment);
+        for (Map.Entry<String, RequestBulkheadProperties.RequestClass> entry : properties.getClasses().entrySet()) {
+            String name = entry.getKey();
+            RequestBulkheadProperties.RequestClass config = entry.getValue();
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(config.getThreads(), config.getThreads(),
+                    60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(Math.max(1, config.getQueue())),
+                    threadFactory("http-" + name + "-", virtual), new ThreadPoolExecutor.AbortPolicy());
+            pool.allowCoreThreadTimeOut(true);
+            executors.add(pool);
+
+            new ExecutorServiceMetrics(pool, "http.bulkhead", Tags.of("class", name)).bindTo(meterRegistry);
+            Timer queueWait = Timer.builder("http.bulkhead.queue_wait")
+                    .description("Time a request waited for a thread of its request class")
+                    .tag("class", name)
+                    .register(meterRegistry);
+            Counter rejected = Counter.builder("http.bulkhead.rejected")
+                    .description("Requests refused with 503 because their request class's queue was full")
+                    .tag("class", name)
+                    .register(meterRegistry);
+
+            long retryAfter = Math.max(1, (config.getRetryAfter().toMillis() + 999) / 1000);
+            AsyncTaskExecutor executor = task -> {
+                try {
+                    pool.execute(task);
+                } catch (RejectedExecutionException e) {
+                    rejected.increment();
+                    throw new ServiceBusyException("Request class '" + name + "' is full", retryAfter);
+                }
+            };
+
+            List<String> methods = config.getMethods().stream().map(String::toUpperCase).toList();
+            bulkheads.add(new Bulkhead(name, methods, List.copyOf(config.getPaths()), executor,
+                    config.getTimeout().toMillis(), queueWait));
+            logger.info("Request class '{}': {} threads, queue {}, on {} {}", name, config.getThreads(),
+                    config.getQueue(), methods.isEmpty() ? "*" : methods, config.getPaths());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executors.forEach(ThreadPoolExecutor::shutdown);
+    }
+
+    private static ThreadFactory threadFactory(String prefix, boolean virtual) {
+        return virtual ? new VirtualThreadTaskExecutor(prefix).getVirtualThreadFactory()
+                : new CustomizableThreadFactory(prefix);
+    }
+
+    /** The request's class, or null when it should stay on the calling thread. */
+    Bulkhead classify(HttpServletRequest request) {
+        if (!enabled) {
+            return null;
+        }
+        String method = request.getMethod().toUpperCase();
+        String path = request.getRequestURI();
+        for (Bulkhead bulkhead : bulkheads) {
+            if (!bulkhead.methods().isEmpty() && !bulkhead.methods().contains(method)) {
+                continue;
+            }
+            for (String pattern : bulkhead.paths()) {
+                if (pathMatcher.match(pattern, path)) {
+                    return bulkhead;
+                }
+            }
+        }
+        return null;
+    }
+}
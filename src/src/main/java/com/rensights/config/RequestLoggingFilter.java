@@ -1,5 +1,7 @@
 package com.rensights.config;
 
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -30,6 +32,29 @@ public class RequestLoggingFilter extends OncePerRequestFilter {
 
         try {
             filterChain.doFilter(request, response);
+            if (request.isAsyncStarted()) {
+                // Controller handed to its request class's executor; log once the response is done.
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        long durationMs = System.currentTimeMillis() - startedAt;
+                        logger.info("HTTP {} {} -> {} ({}ms) traceId={}", method, path, response.getStatus(), durationMs, traceId);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+                return;
+            }
             long durationMs = System.currentTimeMillis() - startedAt;
             logger.info("HTTP {} {} -> {} ({}ms) traceId={}", method, path, response.getStatus(), durationMs, traceId);
         } catch (Exception ex) {
@@ -1,5 +1,6 @@
 package com.rensights.config;
 
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
@@ -19,6 +20,10 @@ public class RequestLoggingInterceptor implements HandlerInterceptor {
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            // Second dispatch of a request whose controller ran on a request class's executor.
+            return true;
+        }
         request.setAttribute(START_TIME_ATTR, System.currentTimeMillis());
 
         String handlerName = handler instanceof HandlerMethod
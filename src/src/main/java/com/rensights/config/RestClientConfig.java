@@ -26,10 +26,12 @@ public class RestClientConfig {
     private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(5);
     private static final Duration READ_TIMEOUT = Duration.ofSeconds(15);
 
+    /** Trace id propagation and per-upstream timing: {@link UpstreamCallInterceptor}. */
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder) {
+    public RestTemplate restTemplate(RestTemplateBuilder builder, UpstreamCallInterceptor upstreamCallInterceptor) {
         return builder
                 .requestFactory(SimpleClientHttpRequestFactory::new)
+                .additionalInterceptors(upstreamCallInterceptor)
                 .setConnectTimeout(CONNECT_TIMEOUT)
                 .setReadTimeout(READ_TIMEOUT)
                 .build();
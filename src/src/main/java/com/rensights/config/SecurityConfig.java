@@ -1,17 +1,23 @@
 package com.rensights.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
 
 @Configuration
 @EnableWebSecurity
@@ -23,6 +29,36 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
     
+    /**
+     * SECURITY: Actuator endpoints that expose internals or cost real work - a JFR recording of
+     * the process, evicting application caches, the startup timeline - are for operators only,
+     * never for a customer JWT (which every signed-up user has). Checked before the main chain,
+     * with HTTP Basic against the single operator account from {@code app.operator.*}; without a
+     * configured password nobody gets in.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain operatorEndpointsFilterChain(
+            HttpSecurity http,
+            PasswordEncoder passwordEncoder,
+            @Value("${app.operator.username:operator}") String operatorUsername,
+            @Value("${app.operator.password:}") String operatorPassword) throws Exception {
+        http
+            .securityMatcher(EndpointRequest.to("jfr", "cachestats", "startup"))
+            .csrf(csrf -> csrf.disable())
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .httpBasic(basic -> {});
+        if (operatorPassword.isBlank()) {
+            http.authorizeHttpRequests(auth -> auth.anyRequest().denyAll());
+        } else {
+            http.userDetailsService(new InMemoryUserDetailsManager(User.withUsername(operatorUsername)
+                    .password(passwordEncoder.encode(operatorPassword))
+                    .roles("OPERATOR")
+                    .build()))
+                .authorizeHttpRequests(auth -> auth.anyRequest().hasRole("OPERATOR"));
+        }
+        return http.build();
+    }
     
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
@@ -38,6 +74,9 @@ public class SecurityConfig {
             // CORS must be configured before authentication
             .cors(cors -> cors.configurationSource(corsConfig.corsConfigurationSource()))
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            // Per request only: lets the async dispatch of a bulkheaded request see the JWT
+            // authentication from its first dispatch (see JwtAuthenticationFilter).
+            .securityContext(context -> context.securityContextRepository(new RequestAttributeSecurityContextRepository()))
             // SECURITY FIX: Add security headers
             .headers(headers -> headers
                 .contentTypeOptions(contentTypeOptions -> {})
@@ -91,7 +130,7 @@ public class SecurityConfig {
                 // Traefik / same-origin API is often routed with /api prefix; probes may hit /api/actuator/health
                 .requestMatchers(HttpMethod.GET, "/api/actuator/health").permitAll()
                 .requestMatchers("/actuator/health").permitAll() // Only health endpoint public
-                .requestMatchers("/actuator/**").authenticated() // Other actuator endpoints require auth
+                .requestMatchers("/actuator/**").authenticated() // Other actuator endpoints require auth (operator-only ones: see above)
                 .requestMatchers("/error").permitAll()
                 .anyRequest().authenticated()
             );
@@ -0,0 +1,85 @@
+package com.rensights.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Exports the startup timeline recorded by {@link BufferingApplicationStartup} (set up in
+ * RensightsApplication) once the application is ready, so a slower boot shows up on a dashboard
+ * instead of only as a longer startup probe.
+ *
+ * <p>{@code application.startup.step{step}} gets one sample per recorded step, e.g.
+ * {@code spring.beans.instantiate} once per bean, so its sum is the time spent in that kind of
+ * step; steps nest, so sums of different steps overlap. Per-bean tags would be far too many
+ * series, so the slowest beans are logged instead. The timeline itself stays readable at
+ * {@code /actuator/startup}, for operators only (see SecurityConfig).
+ */
+@Component
+public class StartupTimelineMetrics {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimelineMetrics.class);
+
+    private static final int SLOWEST_BEANS_LOGGED = 10;
+
+    private final ObjectProvider<BufferingApplicationStartup> startup;
+    private final MeterRegistry meterRegistry;
+
+    public StartupTimelineMetrics(ObjectProvider<BufferingApplicationStartup> startup, MeterRegistry meterRegistry) {
+        this.startup = startup;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void export() {
+        BufferingApplicationStartup buffering = startup.getIfAvailable();
+        if (buffering == null) {
+            return;
+        }
+        List<StartupTimeline.TimelineEvent> events = buffering.getBufferedTimeline().getEvents();
+        Map<String, Timer> timers = new HashMap<>();
+        for (StartupTimeline.TimelineEvent event : events) {
+            String step = event.getStartupStep().getName();
+            timers.computeIfAbsent(step, name -> Timer.builder("application.startup.step")
+                    .description("Time spent in each kind of application startup step")
+                    .tag("step", name)
+                    .register(meterRegistry))
+                .record(event.getDuration());
+        }
+
+        String slowest = events.stream()
+            .filter(event -> "spring.beans.instantiate".equals(event.getStartupStep().getName()))
+            .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+            .limit(SLOWEST_BEANS_LOGGED)
+            .map(event -> beanName(event.getStartupStep()) + "=" + event.getDuration().toMillis() + "ms")
+            .collect(Collectors.joining(", "));
+        Duration total = Duration.between(buffering.getBufferedTimeline().getStartTime(), Instant.now());
+        logger.info("Startup took {} ms over {} recorded steps; slowest beans (incl. dependencies): {}",
+            total.toMillis(), events.size(), slowest);
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if ("beanName".equals(tag.getKey())) {
+                return tag.getValue();
+            }
+        }
+        return "?";
+    }
+}
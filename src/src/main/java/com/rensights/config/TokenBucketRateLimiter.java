@@ -0,0 +1,77 @@
+package com.rensights.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket per client key, updated with a single compare-and-set and no locks.
+ *
+ * <p>Rather than storing "tokens left" and "last refill" (two values that would have to change
+ * together), each bucket holds one number: the theoretical arrival time (TAT) of the next request
+ * if the client kept spending at exactly the refill rate. Taking a token pushes the TAT forward by
+ * one emission interval; the request is allowed as long as the TAT stays within
+ * {@code capacity} intervals of now. That is the generic cell rate algorithm, and it admits
+ * exactly the same traffic as a token bucket of the same capacity and rate.
+ *
+ * <p>Concurrent requests for one key race on the {@link AtomicLong}; a loser re-reads and retries,
+ * so two requests can never both spend the last token (the old get-then-put could). Different
+ * keys never contend, and Caffeine's map is itself striped.
+ *
+ * <p>Idle buckets expire once they would have refilled completely, so forgetting a client is
+ * indistinguishable from remembering a full bucket.
+ */
+public class TokenBucketRateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstNanos;
+    private final Cache<String, AtomicLong> buckets;
+
+    public TokenBucketRateLimiter(int capacity, int refillTokens, Duration refillPeriod, long maxKeys) {
+        if (capacity < 1 || refillTokens < 1 || refillPeriod.isZero() || refillPeriod.isNegative()) {
+            throw new IllegalArgumentException("Rate limit needs a positive capacity, refill and period");
+        }
+        this.emissionIntervalNanos = Math.max(1, refillPeriod.toNanos() / refillTokens);
+        this.burstNanos = emissionIntervalNanos * capacity;
+        this.buckets = Caffeine.newBuilder()
+                .expireAfterAccess(burstNanos, TimeUnit.NANOSECONDS)
+                .maximumSize(maxKeys)
+                .recordStats()
+                .build();
+    }
+
+    /** The bucket map, for cache metrics. */
+    Cache<String, AtomicLong> buckets() {
+        return buckets;
+    }
+
+    /**
+     * Take one token for the key.
+     *
+     * @return 0 if the request is allowed, otherwise how long (in nanoseconds) until a token
+     *         will be available again
+     */
+    public long tryAcquire(String key) {
+        AtomicLong tat = buckets.get(key, k -> new AtomicLong(System.nanoTime()));
+        while (true) {
+            long now = System.nanoTime();
+            long current = tat.get();
+            long next = Math.max(current, now) + emissionIntervalNanos;
+            long overdraft = next - now - burstNanos;
+            if (overdraft > 0) {
+                return overdraft;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /** Clients currently tracked (approximate). */
+    public long trackedKeys() {
+        return buckets.estimatedSize();
+    }
+}
@@ -17,23 +17,29 @@ import java.util.UUID;
 @Order(Ordered.HIGHEST_PRECEDENCE)
 public class TraceIdFilter extends OncePerRequestFilter {
 
-    private static final String TRACE_HEADER = "X-Trace-Id";
+    static final String TRACE_HEADER = "X-Trace-Id";
     private static final String ALT_TRACE_HEADER = "X-Request-Id";
-    private static final String MDC_KEY = "traceId";
+    static final String MDC_KEY = "traceId";
+    private static final String TRACE_ATTRIBUTE = TraceIdFilter.class.getName() + ".traceId";
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
-        String traceId = request.getHeader(TRACE_HEADER);
-        if (traceId == null || traceId.isBlank()) {
-            traceId = request.getHeader(ALT_TRACE_HEADER);
-        }
-        if (traceId == null || traceId.isBlank()) {
-            traceId = UUID.randomUUID().toString();
+        // An async dispatch (see RequestBulkheads) keeps the id of the request it continues.
+        String traceId = (String) request.getAttribute(TRACE_ATTRIBUTE);
+        if (traceId == null) {
+            traceId = request.getHeader(TRACE_HEADER);
+            if (traceId == null || traceId.isBlank()) {
+                traceId = request.getHeader(ALT_TRACE_HEADER);
+            }
+            if (traceId == null || traceId.isBlank()) {
+                traceId = UUID.randomUUID().toString();
+            }
+            request.setAttribute(TRACE_ATTRIBUTE, traceId);
+            response.setHeader(TRACE_HEADER, traceId);
         }
 
         MDC.put(MDC_KEY, traceId);
-        response.setHeader(TRACE_HEADER, traceId);
 
         try {
             filterChain.doFilter(request, response);
@@ -42,6 +48,11 @@ public class TraceIdFilter extends OncePerRequestFilter {
         }
     }
 
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         String path = request.getRequestURI();
@@ -0,0 +1,88 @@
+package com.rensights.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Instruments every call made through the shared {@link org.springframework.web.client.RestTemplate}
+ * (see {@link RestClientConfig}).
+ *
+ * <p>Sends the request's trace id upstream as {@code X-Trace-Id}, so the deals and analysis
+ * modules can log under the same id, and times the call as {@code upstream.requests} tagged
+ * with the upstream's name, the method and the status ({@code IO_ERROR} when no response came
+ * back). Boot's own {@code http.client.requests} cannot tell the two modules apart (same host)
+ * and tags the full path, deal id included.
+ */
+@Component
+public class UpstreamCallInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamCallInterceptor.class);
+
+    private final MeterRegistry meterRegistry;
+    /** Base URL to upstream name, longest first so /deals wins over the bare host. */
+    private final Map<String, String> upstreams = new TreeMap<>(
+        Comparator.comparingInt(String::length).reversed().thenComparing(Comparator.naturalOrder()));
+
+    public UpstreamCallInterceptor(MeterRegistry meterRegistry,
+                                   @Value("${deals.api.url}") String dealsApiUrl,
+                                   @Value("${analysis.api.url:http://10.42.0.1:8000}") String analysisApiUrl) {
+        this.meterRegistry = meterRegistry;
+        upstreams.put(analysisApiUrl, "analysis");
+        upstreams.put(dealsApiUrl, "deals");
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        String traceId = MDC.get(TraceIdFilter.MDC_KEY);
+        if (traceId != null && !request.getHeaders().containsKey(TraceIdFilter.TRACE_HEADER)) {
+            request.getHeaders().set(TraceIdFilter.TRACE_HEADER, traceId);
+        }
+
+        String upstream = upstream(request);
+        String status = "IO_ERROR";
+        long start = System.nanoTime();
+        try {
+            ClientHttpResponse response = execution.execute(request, body);
+            status = String.valueOf(response.getStatusCode().value());
+            return response;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Timer.builder("upstream.requests")
+                .description("Calls to upstream services, by upstream and response status")
+                .tag("upstream", upstream)
+                .tag("method", request.getMethod().name())
+                .tag("status", status)
+                .register(meterRegistry)
+                .record(elapsed, TimeUnit.NANOSECONDS);
+            logger.debug("Upstream {} {} {} -> {} ({}ms) traceId={}", upstream, request.getMethod(),
+                request.getURI().getPath(), status, elapsed / 1_000_000, traceId);
+        }
+    }
+
+    private String upstream(HttpRequest request) {
+        String uri = request.getURI().toString();
+        for (Map.Entry<String, String> entry : upstreams.entrySet()) {
+            if (uri.startsWith(entry.getKey())) {
+                return entry.getValue();
+            }
+        }
+        String host = request.getURI().getHost();
+        return host == null ? "unknown" : host;
+    }
+}
@@ -0,0 +1,88 @@
+package com.rensights.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reports virtual threads that block while pinned to their carrier thread, when the app runs on
+ * virtual threads ({@code spring.threads.virtual.enabled} on Java 21+).
+ *
+ * <p>A virtual thread that blocks inside a {@code synchronized} block or method (or in native
+ * code) cannot unmount, so it holds one of the few carrier threads for the whole wait; enough of
+ * them at once and every request stalls. The JVM records each such wait longer than
+ * {@code pinned-threshold} as a {@code jdk.VirtualThreadPinned} JFR event; this streams them
+ * into {@code jvm.virtual_threads.pinned} and logs each new call site once, with the stack, so
+ * the section can be moved to a {@code ReentrantLock} the way GraphAccessTokenManager was.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    /** Distinct call sites logged; beyond this only the metric counts. */
+    private static final int MAX_LOGGED_SITES = 100;
+
+    private final Timer pinned;
+    private final Set<String> loggedSites = ConcurrentHashMap.newKeySet();
+    private RecordingStream stream;
+
+    @Value("${app.virtual-threads.pinned-threshold:20ms}")
+    private Duration threshold;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry) {
+        this.pinned = Timer.builder("jvm.virtual_threads.pinned")
+            .description("Time virtual threads spent blocked while pinned to their carrier thread")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        logger.info("Watching for virtual threads pinned longer than {}", threshold);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.record(event.getDuration());
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        String site = frames.stream()
+            .filter(frame -> frame.getMethod().getType().getName().startsWith("com.rensights."))
+            .findFirst()
+            .or(() -> frames.stream().findFirst())
+            .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName())
+            .orElse("unknown");
+        if (loggedSites.size() < MAX_LOGGED_SITES && loggedSites.add(site)) {
+            StringBuilder stack = new StringBuilder();
+            frames.stream().limit(20).forEach(frame -> stack.append("\n\tat ")
+                .append(frame.getMethod().getType().getName()).append('.').append(frame.getMethod().getName())
+                .append(':').append(frame.getLineNumber()));
+            logger.warn("Virtual thread pinned for {}ms at {}{}", event.getDuration().toMillis(), site, stack);
+        }
+    }
+}
@@ -1,9 +1,15 @@
 package com.rensights.config;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcRegistrations;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerAdapter;
+
+import java.util.List;
 
 @Configuration
 public class WebMvcConfig implements WebMvcConfigurer {
@@ -17,4 +23,21 @@ public class WebMvcConfig implements WebMvcConfigurer {
             .addPathPatterns("/**")
             .excludePathPatterns("/actuator/**");
     }
+
+    /** Ahead of Jackson, which would otherwise serialize a CompressedJson as a bean. */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new CompressedJsonHttpMessageConverter());
+    }
+
+    /** Controllers run on their request class's executor; see {@link RequestBulkheads}. */
+    @Bean
+    public WebMvcRegistrations requestBulkheadRegistrations(RequestBulkheads requestBulkheads) {
+        return new WebMvcRegistrations() {
+            @Override
+            public RequestMappingHandlerAdapter getRequestMappingHandlerAdapter() {
+                return new BulkheadRequestMappingHandlerAdapter(requestBulkheads);
+            }
+        };
+    }
 }
@@ -1,5 +1,6 @@
 package com.rensights.controller;
 
+import com.rensights.config.QueryBudget;
 import com.rensights.dto.TrackEventRequest;
 import com.rensights.service.AnalyticsService;
 import org.slf4j.Logger;
@@ -41,6 +42,8 @@ public class AnalyticsController {
         }
     }
 
+    // One batched insert for the whole request.
+    @QueryBudget(1)
     @PostMapping("/events")
     public ResponseEntity<?> trackEvents(@RequestBody List<TrackEventRequest> events) {
         try {
@@ -1,8 +1,10 @@
 package com.rensights.controller;
 
+import com.rensights.config.QueryBudget;
 import com.rensights.dto.ArticleDTO;
 import com.rensights.service.ArticleImageStorageService;
 import com.rensights.service.ArticleService;
+import com.rensights.util.CompressedJson;
 import java.net.URLConnection;
 import java.util.Base64;
 import java.util.List;
@@ -29,6 +31,8 @@ public class ArticleController {
     private final ArticleService articleService;
     private final ArticleImageStorageService articleImageStorageService;
 
+    // Kill switch, and articles with their categories; the kill switch again if there are none.
+    @QueryBudget(3)
     @GetMapping("/articles")
     public ResponseEntity<List<ArticleDTO>> listPublic() {
         List<ArticleDTO> articles = articleService.listPublic();
@@ -45,8 +49,8 @@ public class ArticleController {
     }
 
     @GetMapping("/articles/slug/{slug}")
-    public ResponseEntity<ArticleDTO> getPublicBySlug(@PathVariable String slug) {
-        ArticleDTO article = articleService.getPublicBySlug(slug);
+    public ResponseEntity<CompressedJson> getPublicBySlug(@PathVariable String slug) {
+        CompressedJson article = articleService.getPublicBySlug(slug);
         if (article == null) {
             return ResponseEntity.notFound().build();
         }
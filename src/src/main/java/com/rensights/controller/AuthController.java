@@ -262,7 +262,7 @@ public class AuthController {
             // Generate and send new verification code
             String code = verificationCodeService.generateCode(request.getEmail());
             logger.info("New code generated, sending email...");
-            emailService.sendVerificationCode(request.getEmail(), code);
+            emailService.queueVerificationCode(request.getEmail(), code);
             logger.info("✅ Verification code resent to: {}", request.getEmail());
             
             return ResponseEntity.ok(new MessageResponse("Verification code sent to your email"));
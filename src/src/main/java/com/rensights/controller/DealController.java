@@ -7,6 +7,7 @@ import com.rensights.repository.DealRepository;
 import com.rensights.repository.UserRepository;
 import com.rensights.service.DealsFetchService;
 import com.rensights.service.WeeklyDealsSettingsService;
+import com.rensights.util.CompressedJson;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
@@ -442,9 +443,14 @@ public class DealController {
 
         try {
             // Fetch + parse from third-party API (cached; null/404 never cached).
-            Map<String, Object> dto;
+            CompressedJson dto;
             try {
-                dto = dealsFetchService.getDealById(dealId);
+                try {
+                    dto = dealsFetchService.getDealById(dealId);
+                } catch (RuntimeException e) {
+                    // Rethrows e unless a recent copy of the deal can be served instead.
+                    dto = dealsFetchService.staleDealById(dealId, e);
+                }
             } catch (HttpClientErrorException | HttpServerErrorException e) {
                 logger.error("Error fetching deal from API: {}", e.getMessage());
                 if (e.getStatusCode().value() == 404) {
@@ -1,6 +1,7 @@
 package com.rensights.controller;
 
 import com.rensights.exception.InvalidCredentialsException;
+import com.rensights.exception.ServiceBusyException;
 import com.rensights.exception.VerificationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,6 +11,7 @@ import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 import org.slf4j.MDC;
 
 import java.util.HashMap;
@@ -82,6 +84,23 @@ public class GlobalExceptionHandler {
                 .body(Map.of("error", ex.getMessage()));
     }
 
+    /** A request class's executor was full (RequestBulkheads); the client should retry shortly. */
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<Map<String, String>> handleServiceBusy(ServiceBusyException ex) {
+        logger.debug("Refusing request: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", String.valueOf(ex.getRetryAfterSeconds()))
+                .body(Map.of("error", "Service is busy. Please try again shortly."));
+    }
+
+    /** The controller did not finish within its request class's timeout. */
+    @ExceptionHandler(AsyncRequestTimeoutException.class)
+    public ResponseEntity<Map<String, String>> handleAsyncTimeout(AsyncRequestTimeoutException ex) {
+        logger.warn("Request timed out traceId={}", MDC.get("traceId"));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("error", "The request took too long. Please try again shortly."));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleUnhandledException(Exception ex) {
         String traceId = MDC.get("traceId");
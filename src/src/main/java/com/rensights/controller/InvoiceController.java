@@ -1,5 +1,6 @@
 package com.rensights.controller;
 
+import com.rensights.config.QueryBudget;
 import com.rensights.dto.InvoiceResponse;
 import com.rensights.model.Invoice;
 import com.rensights.service.InvoiceService;
@@ -49,6 +50,7 @@ public class InvoiceController {
     /**
      * Sync invoices from Stripe
      */
+    @QueryBudget(10)
     @PostMapping("/sync")
     public ResponseEntity<?> syncInvoices() {
         try {
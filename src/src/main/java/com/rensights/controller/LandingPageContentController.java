@@ -2,12 +2,11 @@ package com.rensights.controller;
 
 import com.rensights.dto.LandingPageSectionDTO;
 import com.rensights.service.LandingPageContentService;
+import com.rensights.util.CompressedJson;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Map;
-
 @RestController
 @RequestMapping("/api/landing-page")
 @RequiredArgsConstructor
@@ -24,7 +23,7 @@ public class LandingPageContentController {
     }
     
     @GetMapping
-    public ResponseEntity<Map<String, LandingPageSectionDTO>> getAllSections(
+    public ResponseEntity<CompressedJson> getAllSections(
         @RequestParam(defaultValue = "en") String language
     ) {
         return ResponseEntity.ok(landingPageContentService.getAllSections(language));
@@ -1,5 +1,6 @@
 package com.rensights.controller;
 
+import com.rensights.config.QueryBudget;
 import com.rensights.dto.ReportSectionDTO;
 import com.rensights.model.ReportDocument;
 import com.rensights.model.User;
@@ -31,6 +32,8 @@ public class ReportController {
     private final ReportStorageService reportStorageService;
     private final UserRepository userRepository;
 
+    // User, sections (plus the English fallback for an untranslated language), all their documents.
+    @QueryBudget(4)
     @GetMapping("/sections")
     public ResponseEntity<List<ReportSectionDTO>> getSections(
         @RequestParam(defaultValue = "en") String lang,
@@ -1,10 +1,8 @@
 package com.rensights.controller;
 
-import com.rensights.service.InvoiceService;
+import com.rensights.service.StripeWebhookInboxService;
 import com.stripe.exception.SignatureVerificationException;
 import com.stripe.model.Event;
-import com.stripe.model.EventDataObjectDeserializer;
-import com.stripe.model.StripeObject;
 import com.stripe.net.Webhook;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,16 +24,7 @@ public class StripeWebhookController {
     }
     
     @Autowired
-    private InvoiceService invoiceService;
-    
-    @Autowired
-    private com.rensights.service.EmailService emailService;
-    
-    @Autowired
-    private com.rensights.service.SubscriptionService subscriptionService;
-
-    @Autowired
-    private com.rensights.service.StripeService stripeService;
+    private StripeWebhookInboxService webhookInbox;
     
     @Value("${stripe.webhook-secret:}")
     private String webhookSecret;
@@ -43,13 +32,16 @@ public class StripeWebhookController {
     /**
      * Handle Stripe webhook events
      * Endpoint: POST /api/webhooks/stripe
+     *
+     * <p>Only verifies and stores the event; StripeWebhookProcessor does the work in the
+     * background. Stripe gets its 200 as soon as the event is durable, and a redelivery of an
+     * event we already hold is acknowledged without doing anything.
      */
     @PostMapping(value = {"", "/"})
     public ResponseEntity<String> handleWebhook(
             @RequestBody String payload, 
             @RequestHeader(value = "Stripe-Signature", required = false) String sigHeader) {
         
-        logger.info("=== WEBHOOK ENDPOINT HIT ===");
         logger.info("Webhook received - payload length: {}, signature present: {}",
                    payload != null ? payload.length() : 0,
                    sigHeader != null && !sigHeader.isEmpty());
@@ -61,442 +53,19 @@ public class StripeWebhookController {
 
         try {
             Event event = Webhook.constructEvent(payload, sigHeader, webhookSecret);
-            logger.info("Received Stripe webhook event: {}", event.getType());
-
-            // Handle the event
-            switch (event.getType()) {
-                case "checkout.session.completed":
-                    handleCheckoutSessionCompleted(event);
-                    break;
-                case "invoice.payment_succeeded":
-                    handleInvoicePaymentSucceeded(event);
-                    break;
-                case "invoice.payment_failed":
-                    handleInvoicePaymentFailed(event);
-                    break;
-                case "invoice.created":
-                    handleInvoiceCreated(event);
-                    break;
-                case "invoice.updated":
-                    handleInvoiceUpdated(event);
-                    break;
-                case "customer.subscription.deleted":
-                    handleSubscriptionDeleted(event);
-                    break;
-                case "customer.subscription.updated":
-                    handleSubscriptionUpdated(event);
-                    break;
-                default:
-                    logger.info("Unhandled event type: {}", event.getType());
+            if (!webhookInbox.accept(event, payload)) {
+                logger.info("Duplicate Stripe webhook event {} ({}) - already received", event.getId(), event.getType());
+                return ResponseEntity.ok("Webhook already received");
             }
-
-            return ResponseEntity.ok("Webhook processed successfully");
+            logger.info("Received Stripe webhook event {} ({})", event.getId(), event.getType());
+            return ResponseEntity.ok("Webhook received");
         } catch (SignatureVerificationException e) {
             logger.error("Invalid webhook signature: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid signature");
         } catch (Exception e) {
-            logger.error("Error processing webhook: {}", e.getMessage(), e);
+            // Not stored, so let Stripe redeliver it.
+            logger.error("Error storing webhook: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Webhook processing failed");
         }
     }
-    
-    /**
-     * Handle checkout.session.completed event
-     * This fires when a Checkout Session is successfully completed
-     * We can send a confirmation email here as well
-     */
-    private void handleCheckoutSessionCompleted(Event event) {
-        try {
-            com.stripe.model.checkout.Session session = deserializeEventObject(
-                    event,
-                    com.stripe.model.checkout.Session.class,
-                    "checkout session"
-            );
-            
-            logger.info("Processing checkout.session.completed for session: {}", session.getId());
-            logger.info("Session status: {}, Customer: {}, Payment status: {}", 
-                       session.getStatus(), session.getCustomer(), session.getPaymentStatus());
-            
-            // If payment was successful, update subscription and send confirmation email
-            if ("complete".equals(session.getStatus()) && "paid".equals(session.getPaymentStatus())) {
-                // CRITICAL: Update user tier and subscription when checkout completes
-                try {
-                    String customerId = session.getCustomer();
-                    String subscriptionId = session.getSubscription();
-                    String invoiceId = session.getInvoice();
-                    
-                    if (customerId != null) {
-                        subscriptionService.handlePaymentSuccess(customerId, subscriptionId, invoiceId);
-                        logger.info("✅ User tier and subscription updated from checkout session for customer: {}", customerId);
-                    }
-                } catch (Exception e) {
-                    logger.error("❌ Error updating user tier/subscription from checkout session: {}", e.getMessage(), e);
-                    throw new RuntimeException("Failed to update subscription from checkout session", e);
-                }
-                
-                // Send confirmation email
-                try {
-                    // Get customer email from Stripe
-                    String customerId = session.getCustomer();
-                    if (customerId != null) {
-                        com.stripe.model.Customer customer = com.stripe.model.Customer.retrieve(customerId);
-                        String customerEmail = customer.getEmail();
-                        
-                        if (customerEmail != null && !customerEmail.isEmpty()) {
-                            // Try to get invoice if available
-                            String invoiceId = session.getInvoice();
-                            String invoicePdfUrl = null;
-                            String invoiceNumber = session.getId(); // Fallback to session ID
-                            
-                            if (invoiceId != null) {
-                                try {
-                                    com.stripe.model.Invoice invoice = com.stripe.model.Invoice.retrieve(invoiceId);
-                                    invoicePdfUrl = invoice.getInvoicePdf();
-                                    invoiceNumber = invoice.getNumber() != null ? invoice.getNumber() : invoiceId;
-                                } catch (Exception e) {
-                                    logger.warn("Could not retrieve invoice {}: {}", invoiceId, e.getMessage());
-                                }
-                            }
-                            
-                            // Send confirmation email
-                            String customerName = customer.getName() != null ? customer.getName() : customerEmail;
-                            emailService.sendPaymentReceiptEmail(
-                                customerEmail,
-                                customerName,
-                                invoiceNumber,
-                                String.valueOf(session.getAmountTotal() != null ? session.getAmountTotal() / 100.0 : 0),
-                                session.getCurrency() != null ? session.getCurrency().toUpperCase() : "USD",
-                                invoicePdfUrl != null ? invoicePdfUrl : "Available in your account dashboard"
-                            );
-                            
-                            logger.info("✅ Checkout completion email sent to: {}", customerEmail);
-                        } else {
-                            logger.warn("⚠️ Customer {} has no email address - cannot send email", customerId);
-                        }
-                    }
-                } catch (Exception e) {
-                    logger.error("Error sending checkout completion email: {}", e.getMessage(), e);
-                }
-            }
-        } catch (Exception e) {
-            logger.error("Error handling checkout.session.completed: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to handle checkout session", e);
-        }
-    }
-
-    private void handleInvoicePaymentSucceeded(Event event) {
-        try {
-            com.stripe.model.Invoice stripeInvoice = deserializeEventObject(
-                    event,
-                    com.stripe.model.Invoice.class,
-                    "invoice"
-            );
-            
-            logger.info("Processing invoice.payment_succeeded for invoice: {}", stripeInvoice.getId());
-            logger.info("Invoice status: {}, Customer: {}, Amount: {}", 
-                       stripeInvoice.getStatus(), stripeInvoice.getCustomer(), stripeInvoice.getAmountPaid());
-            
-            // Process and store invoice
-            com.rensights.model.Invoice invoice = null;
-            try {
-                invoice = invoiceService.processStripeInvoice(stripeInvoice);
-                logger.info("Invoice processed successfully: {}", invoice != null ? invoice.getId() : "null");
-            } catch (Exception e) {
-                logger.error("Error processing invoice in database, but will still try to send email: {}", e.getMessage());
-                // Continue to send email even if invoice processing fails
-            }
-            
-            // CRITICAL: Update user tier and subscription when payment succeeds
-            // This ensures user gets upgraded immediately when payment is processed
-            try {
-                String stripeCustomerId = stripeInvoice.getCustomer();
-                String stripeSubscriptionId = stripeService.extractInvoiceSubscriptionId(stripeInvoice);
-                String stripeInvoiceId = stripeInvoice.getId();
-                
-                if (stripeCustomerId != null) {
-                    subscriptionService.handlePaymentSuccess(stripeCustomerId, stripeSubscriptionId, stripeInvoiceId);
-                    logger.info("✅ User tier and subscription updated for customer: {}", stripeCustomerId);
-                } else {
-                    logger.warn("⚠️ No customer ID in invoice - cannot update user tier");
-                }
-            } catch (Exception e) {
-                logger.error("❌ Error updating user tier/subscription for payment success: {}", e.getMessage(), e);
-                throw new RuntimeException("Failed to update subscription on payment success", e);
-            }
-            
-            // Always try to send payment confirmation email when payment succeeds
-            // Use invoice data if available, otherwise use Stripe invoice data directly
-            try {
-                String customerEmail = null;
-                String customerName = null;
-                String invoiceNumber = null;
-                String amount = null;
-                String currency = null;
-                String invoicePdfUrl = null;
-                
-                if (invoice != null && invoice.getUser() != null) {
-                    // Use our processed invoice data
-                    com.rensights.model.User user = invoice.getUser();
-                    customerEmail = user.getEmail();
-                    customerName = (user.getFirstName() != null ? user.getFirstName() : "") + 
-                                  (user.getLastName() != null ? " " + user.getLastName() : "").trim();
-                    if (customerName.isEmpty()) {
-                        customerName = user.getEmail();
-                    }
-                    invoiceNumber = invoice.getInvoiceNumber();
-                    amount = invoice.getAmount().toString();
-                    currency = invoice.getCurrency();
-                    invoicePdfUrl = invoice.getInvoicePdf();
-                } else {
-                    // Fallback: Get customer email directly from Stripe
-                    try {
-                        String stripeCustomerId = stripeInvoice.getCustomer();
-                        com.stripe.model.Customer customer = com.stripe.model.Customer.retrieve(stripeCustomerId);
-                        customerEmail = customer.getEmail();
-                        customerName = customer.getName() != null ? customer.getName() : customerEmail;
-                        logger.info("Retrieved customer email from Stripe: {}", customerEmail);
-                    } catch (Exception e) {
-                        logger.error("Could not retrieve customer email from Stripe: {}", e.getMessage());
-                    }
-                    
-                    // Use Stripe invoice data
-                    invoiceNumber = stripeInvoice.getNumber();
-                    amount = String.valueOf(stripeInvoice.getAmountPaid() / 100.0); // Convert cents to dollars
-                    currency = stripeInvoice.getCurrency() != null ? stripeInvoice.getCurrency().toUpperCase() : "USD";
-                    invoicePdfUrl = stripeInvoice.getInvoicePdf() != null ? stripeInvoice.getInvoicePdf() : 
-                                   (stripeInvoice.getHostedInvoiceUrl() != null ? stripeInvoice.getHostedInvoiceUrl() : null);
-                }
-                
-                // Send email if we have customer email
-                if (customerEmail != null && !customerEmail.isEmpty()) {
-                    emailService.sendPaymentReceiptEmail(
-                        customerEmail,
-                        customerName != null ? customerName : customerEmail,
-                        invoiceNumber != null ? invoiceNumber : stripeInvoice.getId(),
-                        amount != null ? amount : "0",
-                        currency != null ? currency : "USD",
-                        invoicePdfUrl != null ? invoicePdfUrl : "Available in your account dashboard"
-                    );
-                    
-                    logger.info("✅ Payment confirmation email sent successfully for invoice: {} to: {}", 
-                               stripeInvoice.getId(), customerEmail);
-                } else {
-                    logger.warn("⚠️ Cannot send email - customer email not found for invoice: {}", stripeInvoice.getId());
-                }
-            } catch (Exception e) {
-                logger.error("❌ Error sending payment confirmation email for invoice {}: {}", 
-                           stripeInvoice.getId(), e.getMessage(), e);
-                // Don't fail the webhook if email fails, but log the error
-            }
-            
-            logger.info("Successfully processed invoice: {}", stripeInvoice.getId());
-        } catch (Exception e) {
-            logger.error("Error handling invoice.payment_succeeded: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to process invoice payment", e);
-        }
-    }
-    
-    private void handleInvoicePaymentFailed(Event event) {
-        try {
-            com.stripe.model.Invoice stripeInvoice = deserializeEventObject(
-                    event,
-                    com.stripe.model.Invoice.class,
-                    "invoice"
-            );
-            
-            logger.warn("Invoice payment failed for invoice: {}", stripeInvoice.getId());
-            
-            // Store/update the invoice record with failed status
-            invoiceService.processStripeInvoice(stripeInvoice);
-
-            // DO NOT downgrade here — Stripe will retry the payment automatically.
-            // Downgrade happens only after all retries are exhausted, via:
-            //   customer.subscription.updated  (status = past_due / unpaid)
-            //   customer.subscription.deleted
-            logger.warn("Payment failed for invoice: {} — awaiting Stripe retry", stripeInvoice.getId());
-        } catch (Exception e) {
-            logger.error("Error handling invoice.payment_failed: {}", e.getMessage(), e);
-        }
-    }
-    
-    private void handleInvoiceCreated(Event event) {
-        try {
-            com.stripe.model.Invoice stripeInvoice = deserializeEventObject(
-                    event,
-                    com.stripe.model.Invoice.class,
-                    "invoice"
-            );
-            
-            logger.info("Processing invoice.created for invoice: {}", stripeInvoice.getId());
-            invoiceService.processStripeInvoice(stripeInvoice);
-        } catch (Exception e) {
-            logger.error("Error handling invoice.created: {}", e.getMessage(), e);
-        }
-    }
-    
-    private void handleInvoiceUpdated(Event event) {
-        try {
-            com.stripe.model.Invoice stripeInvoice = deserializeEventObject(
-                    event,
-                    com.stripe.model.Invoice.class,
-                    "invoice"
-            );
-            
-            logger.info("Processing invoice.updated for invoice: {}", stripeInvoice.getId());
-            invoiceService.processStripeInvoice(stripeInvoice);
-        } catch (Exception e) {
-            logger.error("Error handling invoice.updated: {}", e.getMessage(), e);
-        }
-    }
-    
-    /**
-     * Handle subscription deleted event (when Stripe cancels subscription due to payment failure)
-     */
-    private void handleSubscriptionDeleted(Event event) {
-        try {
-            com.stripe.model.Subscription stripeSubscription = deserializeEventObject(
-                    event,
-                    com.stripe.model.Subscription.class,
-                    "subscription"
-            );
-            
-            logger.warn("Subscription deleted: {}", stripeSubscription.getId());
-
-            Long currentPeriodEnd = extractCurrentPeriodEndEpoch(stripeSubscription);
-            long nowEpochSeconds = java.time.Instant.now().getEpochSecond();
-
-            // If period is still active, keep access until period end.
-            if (currentPeriodEnd != null && currentPeriodEnd > nowEpochSeconds) {
-                subscriptionService.markCancellationScheduled(stripeSubscription.getId(), currentPeriodEnd);
-                logger.info(
-                        "Subscription {} deleted but current period ends in future ({}). Keeping paid access until period end.",
-                        stripeSubscription.getId(),
-                        currentPeriodEnd
-                );
-                return;
-            }
-
-            // Period ended (or unknown) -> downgrade now.
-            subscriptionService.handlePaymentFailure(stripeSubscription.getId());
-        } catch (Exception e) {
-            logger.error("Error handling customer.subscription.deleted: {}", e.getMessage(), e);
-        }
-    }
-    
-    /**
-     * Handle subscription updated event (check for past_due or unpaid status)
-     */
-    private void handleSubscriptionUpdated(Event event) {
-        try {
-            com.stripe.model.Subscription stripeSubscription = deserializeEventObject(
-                    event,
-                    com.stripe.model.Subscription.class,
-                    "subscription"
-            );
-            
-            logger.info("Subscription updated: {} - status: {}", stripeSubscription.getId(), stripeSubscription.getStatus());
-            
-            String status = stripeSubscription.getStatus();
-
-            // past_due means Stripe is still retrying — do NOT downgrade yet.
-            // Downgrade only when Stripe gives up entirely (unpaid / incomplete_expired)
-            // or when the subscription is canceled.
-            if ("past_due".equals(status)) {
-                logger.warn("Subscription {} is past_due — Stripe will retry, holding current plan",
-                        stripeSubscription.getId());
-                return;
-            }
-
-            if ("unpaid".equals(status) || "incomplete_expired".equals(status)) {
-                logger.warn("Subscription {} is in {} status (Stripe exhausted retries), downgrading to FREE",
-                        stripeSubscription.getId(), status);
-                subscriptionService.handlePaymentFailure(stripeSubscription.getId());
-                return;
-            }
-
-            // For canceled subscriptions, downgrade only after paid-through period ends.
-            if ("canceled".equals(status)) {
-                Long currentPeriodEnd = extractCurrentPeriodEndEpoch(stripeSubscription);
-                long nowEpochSeconds = java.time.Instant.now().getEpochSecond();
-                if (currentPeriodEnd != null && currentPeriodEnd > nowEpochSeconds) {
-                    subscriptionService.markCancellationScheduled(stripeSubscription.getId(), currentPeriodEnd);
-                    logger.info(
-                            "Subscription {} canceled but still paid through {}. Keeping access until period end.",
-                            stripeSubscription.getId(),
-                            currentPeriodEnd
-                    );
-                    return;
-                }
-
-                logger.warn("Subscription {} canceled and period ended, downgrading user to FREE tier",
-                        stripeSubscription.getId());
-                subscriptionService.handlePaymentFailure(stripeSubscription.getId());
-            }
-        } catch (Exception e) {
-            logger.error("Error handling customer.subscription.updated: {}", e.getMessage(), e);
-        }
-    }
-
-    /**
-     * Stripe may fail strict event deserialization when the webhook event API version
-     * differs from the stripe-java model version. Fallback to unsafe deserialization
-     * keeps webhook processing resilient.
-     */
-    private <T extends StripeObject> T deserializeEventObject(Event event, Class<T> targetType, String objectName) {
-        EventDataObjectDeserializer deserializer = event.getDataObjectDeserializer();
-        StripeObject stripeObject = deserializer.getObject().orElse(null);
-
-        if (stripeObject == null) {
-            try {
-                stripeObject = deserializer.deserializeUnsafe();
-                logger.warn("Used unsafe Stripe deserialization fallback for event type {}", event.getType());
-            } catch (Exception ex) {
-                throw new RuntimeException("Failed to deserialize " + objectName, ex);
-            }
-        }
-
-        if (!targetType.isInstance(stripeObject)) {
-            throw new RuntimeException(
-                    "Unexpected Stripe object type for " + objectName + ": " + stripeObject.getClass().getName()
-            );
-        }
-
-        return targetType.cast(stripeObject);
-    }
-
-    private Long extractCurrentPeriodEndEpoch(com.stripe.model.Subscription stripeSubscription) {
-        try {
-            Object value = stripeSubscription.getClass().getMethod("getCurrentPeriodEnd").invoke(stripeSubscription);
-            if (value instanceof Long) {
-                return (Long) value;
-            }
-        } catch (NoSuchMethodException ignored) {
-            // stripe-java >= 32 removed Subscription#getCurrentPeriodEnd
-        } catch (Exception e) {
-            logger.warn("Failed reading current period end from subscription {} directly: {}",
-                    stripeSubscription.getId(), e.getMessage());
-        }
-
-        try {
-            Object items = stripeSubscription.getClass().getMethod("getItems").invoke(stripeSubscription);
-            if (items == null) {
-                return null;
-            }
-            Object data = items.getClass().getMethod("getData").invoke(items);
-            if (!(data instanceof java.util.List<?> list) || list.isEmpty()) {
-                return null;
-            }
-            Object firstItem = list.get(0);
-            Object value = firstItem.getClass().getMethod("getCurrentPeriodEnd").invoke(firstItem);
-            if (value instanceof Long) {
-                return (Long) value;
-            }
-        } catch (Exception e) {
-            logger.warn("Failed reading current period end from subscription items {}: {}",
-                    stripeSubscription.getId(), e.getMessage());
-        }
-
-        return null;
-    }
 }
-
@@ -16,6 +16,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -43,6 +44,7 @@ public class SubscriptionController {
     private SubscriptionService subscriptionService;
     
     @Autowired
+    @Lazy
     private StripeService stripeService;
     
     @Autowired
@@ -157,7 +159,7 @@ public class SubscriptionController {
             logger.info("Processing checkout success for user {} with session {}", userId, sessionId);
             
             // Retrieve the checkout session from Stripe
-            Session session = Session.retrieve(sessionId);
+            Session session = stripeService.getCheckoutSession(sessionId);
             logger.info("Retrieved session status: {}", session.getStatus());
             logger.info(
                     "Checkout session {} metadata customerId {} checkoutType {} billingInterval {}",
@@ -182,7 +184,7 @@ public class SubscriptionController {
             }
             
             logger.info("Retrieving Stripe subscription: {}", stripeSubscriptionId);
-            com.stripe.model.Subscription stripeSubscription = com.stripe.model.Subscription.retrieve(stripeSubscriptionId);
+            com.stripe.model.Subscription stripeSubscription = stripeService.fetchSubscription(stripeSubscriptionId);
             
             // Optimized: Use stream to get price ID safely and Map for O(1) lookup
             String priceId = stripeSubscription.getItems().getData().stream()
@@ -1,7 +1,7 @@
 package com.rensights.controller;
 
-import com.rensights.dto.TranslationsResponse;
 import com.rensights.service.TranslationService;
+import com.rensights.util.CompressedJson;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -15,7 +15,7 @@ public class TranslationController {
     
     // Get translations by language and namespace (public endpoint for frontend)
     @GetMapping("/{languageCode}/{namespace}")
-    public ResponseEntity<TranslationsResponse> getTranslationsByLanguageAndNamespace(
+    public ResponseEntity<CompressedJson> getTranslationsByLanguageAndNamespace(
         @PathVariable String languageCode,
         @PathVariable String namespace
     ) {
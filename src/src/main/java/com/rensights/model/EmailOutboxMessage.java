@@ -0,0 +1,100 @@
+package com.rensights.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * One email waiting to be sent, written in the same transaction as the business change that
+ * caused it (see EmailOutboxService) and sent later by EmailOutboxDispatcher.
+ *
+ * <p>{@code lockedUntil} is the dispatcher's lease: a row is only picked up when it is pending,
+ * due, and not leased, so two replicas never send the same message. The body is cleared once the
+ * message is out - for verification emails it holds a live code.
+ */
+@Entity
+@Table(name = "email_outbox", indexes = {
+    @Index(name = "idx_email_outbox_due", columnList = "status, priority, next_attempt_at"),
+    @Index(name = "idx_email_outbox_to_email", columnList = "to_email")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EmailOutboxMessage {
+
+    /** Lower sends first. Verification and reset codes jump the queue. */
+    public static final int PRIORITY_CODE = 0;
+    public static final int PRIORITY_NORMAL = 10;
+
+    public enum Status {
+        PENDING,
+        SENT,
+        FAILED
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(name = "id")
+    private UUID id;
+
+    @Column(name = "priority", nullable = false)
+    private int priority;
+
+    @Column(name = "to_email", nullable = false)
+    private String toEmail;
+
+    @Column(name = "subject", nullable = false)
+    private String subject;
+
+    @Column(name = "body", columnDefinition = "TEXT")
+    private String body;
+
+    @Column(name = "is_html", nullable = false)
+    private boolean html;
+
+    @Column(name = "reply_to")
+    private String replyTo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private Status status = Status.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    /** After this the message is pointless (an expired code) and is dropped rather than sent. */
+    @Column(name = "expires_at")
+    private LocalDateTime expiresAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private LocalDateTime sentAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+        if (nextAttemptAt == null) {
+            nextAttemptAt = createdAt;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.rensights.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A Stripe webhook event as received, keyed by Stripe's event id (see StripeWebhookInboxService).
+ *
+ * <p>The primary key is what makes redeliveries harmless: a second copy of {@code evt_...} is
+ * dropped on insert. {@code customerId} and {@code eventCreated} order the work - only the
+ * oldest unfinished event of a customer is ever handed to a worker, so a subscription update
+ * never overtakes the payment it follows. {@code lockedUntil} is the worker's lease.
+ */
+@Entity
+@Table(name = "stripe_webhook_events", indexes = {
+    @Index(name = "idx_stripe_webhook_events_due", columnList = "status, next_attempt_at"),
+    @Index(name = "idx_stripe_webhook_events_customer", columnList = "customer_id, status, event_created")
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StripeWebhookEvent {
+
+    public enum Status {
+        PENDING,
+        PROCESSED,
+        FAILED
+    }
+
+    @Id
+    @Column(name = "id", length = 255)
+    private String id;
+
+    @Column(name = "type", nullable = false)
+    private String type;
+
+    /** Null for events that are not about a customer; those are not ordered. */
+    @Column(name = "customer_id")
+    private String customerId;
+
+    /** Stripe's {@code created}, epoch seconds. */
+    @Column(name = "event_created", nullable = false)
+    private long eventCreated;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    @Builder.Default
+    private Status status = Status.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "locked_until")
+    private LocalDateTime lockedUntil;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "received_at", nullable = false, updatable = false)
+    private LocalDateTime receivedAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+}
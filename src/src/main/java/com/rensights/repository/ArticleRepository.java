@@ -4,10 +4,15 @@ import com.rensights.model.Article;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 public interface ArticleRepository extends JpaRepository<Article, UUID> {
     Optional<Article> findBySlugAndIsActiveTrue(String slug);
+
+    // Categories in the same query; being EAGER alone, they would be one select per article.
+    @EntityGraph(attributePaths = "categories")
     List<Article> findByIsActiveTrueOrderByPublishedAtDesc();
+
     boolean existsByIsActiveTrue();
 }
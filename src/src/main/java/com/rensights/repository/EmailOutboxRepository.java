@@ -0,0 +1,46 @@
+package com.rensights.repository;
+
+import com.rensights.model.EmailOutboxMessage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxMessage, UUID> {
+
+    /**
+     * Lock the next due messages, most urgent first.
+     *
+     * <p>{@code SKIP LOCKED} lets several replicas (and the fast-lane worker) poll at once without
+     * queueing behind each other or picking up the same rows. The row locks only last for the
+     * calling transaction, so the caller must stamp a lease ({@code locked_until}) before it
+     * commits.
+     */
+    @Query(value = "SELECT * FROM email_outbox "
+        + "WHERE status = 'PENDING' AND priority <= :maxPriority AND next_attempt_at <= :now "
+        + "AND (locked_until IS NULL OR locked_until < :now) "
+        + "ORDER BY priority, next_attempt_at "
+        + "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<EmailOutboxMessage> lockDue(@Param("now") LocalDateTime now,
+                                     @Param("maxPriority") int maxPriority,
+                                     @Param("limit") int limit);
+
+    long countByStatus(EmailOutboxMessage.Status status);
+
+    /** Housekeeping: finished rows older than the retention window. */
+    @Modifying
+    @Query("DELETE FROM EmailOutboxMessage m WHERE m.status <> com.rensights.model.EmailOutboxMessage.Status.PENDING "
+        + "AND m.createdAt < :before")
+    int deleteFinishedBefore(@Param("before") LocalDateTime before);
+
+    /** Erasure: queued and recently sent mail is addressed to the person. */
+    @Modifying
+    @Query("DELETE FROM EmailOutboxMessage m WHERE LOWER(m.toEmail) = LOWER(:email)")
+    int deleteByToEmail(@Param("email") String email);
+}
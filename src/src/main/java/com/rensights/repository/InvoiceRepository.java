@@ -2,8 +2,12 @@ package com.rensights.repository;
 
 import com.rensights.model.Invoice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -13,6 +17,20 @@ public interface InvoiceRepository extends JpaRepository<Invoice, UUID> {
     List<Invoice> findByUserIdOrderByInvoiceDateDesc(UUID userId);
     
     Optional<Invoice> findByStripeInvoiceId(String stripeInvoiceId);
+
+    List<Invoice> findByStripeInvoiceIdIn(Collection<String> stripeInvoiceIds);
+
+    /**
+     * Where an incremental invoice sync has to start from: the oldest invoice that can still
+     * change (draft, open or uncollectible), or failing that the newest one we hold. Null if we
+     * hold none. Only paid and void are final in Stripe - an uncollectible invoice can still be
+     * paid - so nothing older than the oldest non-final one needs fetching again.
+     */
+    @Query("SELECT COALESCE("
+        + "MIN(CASE WHEN i.status IS NULL OR i.status NOT IN ('paid', 'void') THEN i.invoiceDate END), "
+        + "MAX(i.invoiceDate)) "
+        + "FROM Invoice i WHERE i.user.id = :userId")
+    LocalDateTime findSyncCursor(@Param("userId") UUID userId);
     
     List<Invoice> findByUserIdAndStatus(UUID userId, String status);
 }
@@ -1,18 +1,149 @@
 package com.rensights.repository;
 
-import com.rensights.model.RevokedToken;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.transaction.annotation.Transactional;
-import java.time.LocalDateTime;
-import java.util.Optional;
-
-public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
-    Optional<RevokedToken> findByTokenHash(String tokenHash);
-    boolean existsByTokenHash(String tokenHash);
-
-    @Modifying @Transactional
-    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt < :now")
-    int deleteExpired(LocalDateTime now);
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The revoked_tokens table, partitioned by day of JWT expiry (UTC).
+ *
+ * <p>Plain JDBC rather than JPA: Hibernate can neither create nor usefully map a partitioned
+ * table, and every statement here is either a single-row insert/lookup or partition DDL.
+ *
+ * <p>Layout: {@code revoked_tokens_pYYYYMMDD} holds the tokens expiring that day, and
+ * {@code revoked_tokens_default} catches anything outside the partitions created so far (it
+ * should stay empty). The primary key is (token_hash, expires_at), so a lookup that passes the
+ * token's own expiry touches one partition and one index entry.
+ */
+@Repository
+public class RevokedTokenRepository {
+
+    private static final String PARTITION_PREFIX = "revoked_tokens_p";
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    /** Arbitrary, fixed key for pg_try_advisory_xact_lock: "revoked_tokens maintenance". */
+    private static final long MAINTENANCE_LOCK = 0x7265766f6b656401L;
+
+    private final JdbcTemplate jdbc;
+
+    public RevokedTokenRepository(JdbcTemplate jdbc) {
+        this.jdbc = jdbc;
+    }
+
+    /** @return false if the token was already revoked */
+    public boolean insert(byte[] tokenHash, Instant expiresAt) {
+        return jdbc.update("INSERT INTO revoked_tokens (token_hash, expires_at) VALUES (?, ?) ON CONFLICT DO NOTHING",
+            tokenHash, utc(expiresAt)) > 0;
+    }
+
+    public boolean exists(byte[] tokenHash, Instant expiresAt) {
+        return Boolean.TRUE.equals(jdbc.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM revoked_tokens WHERE token_hash = ? AND expires_at = ?)",
+            Boolean.class, tokenHash, utc(expiresAt)));
+    }
+
+    /** For a token without an expiry claim; has to look in every partition. */
+    public boolean exists(byte[] tokenHash) {
+        return Boolean.TRUE.equals(jdbc.queryForObject(
+            "SELECT EXISTS (SELECT 1 FROM revoked_tokens WHERE token_hash = ?)", Boolean.class, tokenHash));
+    }
+
+    /**
+     * Take the cross-replica maintenance lock for the rest of the current transaction.
+     *
+     * @return false if another replica holds it
+     */
+    public boolean tryMaintenanceLock() {
+        return Boolean.TRUE.equals(jdbc.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class,
+            MAINTENANCE_LOCK));
+    }
+
+    /**
+     * What revoked_tokens currently is: {@code "p"} partitioned, {@code "r"} the old plain table
+     * (hex hashes, one big unique index), or null if it does not exist yet.
+     */
+    public String tableKind() {
+        List<String> kinds = jdbc.queryForList(
+            "SELECT relkind::text FROM pg_class WHERE oid = to_regclass('revoked_tokens')", String.class);
+        return kinds.isEmpty() ? null : kinds.get(0);
+    }
+
+    public void createTable() {
+        jdbc.execute("CREATE TABLE IF NOT EXISTS revoked_tokens ("
+            + "token_hash BYTEA NOT NULL, "
+            + "expires_at TIMESTAMPTZ NOT NULL, "
+            + "revoked_at TIMESTAMPTZ NOT NULL DEFAULT now(), "
+            + "CONSTRAINT pk_revoked_tokens PRIMARY KEY (token_hash, expires_at)"
+            + ") PARTITION BY RANGE (expires_at)");
+        jdbc.execute("CREATE TABLE IF NOT EXISTS revoked_tokens_default PARTITION OF revoked_tokens DEFAULT");
+    }
+
+    /** Move the old plain table aside so the partitioned one can take its name. */
+    public void renameLegacyTable() {
+        jdbc.execute("ALTER TABLE revoked_tokens RENAME TO revoked_tokens_legacy");
+    }
+
+    /**
+     * Copy the still-live rows of the old table across and drop it. Run after the day partitions
+     * exist, so the rows land in them rather than in the default partition.
+     *
+     * @return rows copied
+     */
+    public int migrateLegacyRows() {
+        int copied = jdbc.update("INSERT INTO revoked_tokens (token_hash, expires_at) "
+            + "SELECT decode(token_hash, 'hex'), expires_at FROM revoked_tokens_legacy "
+            + "WHERE expires_at > now() AND length(token_hash) = 64 "
+            + "ON CONFLICT DO NOTHING");
+        jdbc.execute("DROP TABLE revoked_tokens_legacy");
+        return copied;
+    }
+
+    public void createDayPartition(LocalDate day) {
+        jdbc.execute("CREATE TABLE IF NOT EXISTS " + partitionName(day) + " PARTITION OF revoked_tokens "
+            + "FOR VALUES FROM ('" + day + " 00:00:00+00') TO ('" + day.plusDays(1) + " 00:00:00+00')");
+    }
+
+    /** Days that currently have a partition. */
+    public List<LocalDate> dayPartitions() {
+        List<String> names = jdbc.queryForList("SELECT c.relname::text FROM pg_inherits i "
+            + "JOIN pg_class c ON c.oid = i.inhrelid "
+            + "WHERE i.inhparent = 'revoked_tokens'::regclass", String.class);
+        List<LocalDate> days = new ArrayList<>(names.size());
+        for (String name : names) {
+            if (!name.startsWith(PARTITION_PREFIX)) {
+                continue;
+            }
+            try {
+                days.add(LocalDate.parse(name.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX));
+            } catch (DateTimeParseException e) {
+                // Not one of ours.
+            }
+        }
+        return days;
+    }
+
+    public void dropDayPartition(LocalDate day) {
+        jdbc.execute("DROP TABLE IF EXISTS " + partitionName(day));
+    }
+
+    /** The default partition is the only one purged row by row; it should hold next to nothing. */
+    public int deleteExpiredFromDefault(Instant now) {
+        return jdbc.update("DELETE FROM revoked_tokens_default WHERE expires_at < ?", utc(now));
+    }
+
+    private static String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + PARTITION_SUFFIX.format(day);
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return instant.atOffset(ZoneOffset.UTC);
+    }
 }
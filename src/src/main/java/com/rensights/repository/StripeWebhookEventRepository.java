@@ -0,0 +1,62 @@
+package com.rensights.repository;
+
+import com.rensights.model.StripeWebhookEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StripeWebhookEventRepository extends JpaRepository<StripeWebhookEvent, String> {
+
+    /**
+     * Store an event unless one with the same Stripe id is already there.
+     *
+     * @return 1 if stored, 0 for a redelivery
+     */
+    @Modifying
+    @Query(value = "INSERT INTO stripe_webhook_events "
+        + "(id, type, customer_id, event_created, payload, status, attempts, next_attempt_at, received_at) "
+        + "VALUES (:id, :type, :customerId, :eventCreated, :payload, 'PENDING', 0, :now, :now) "
+        + "ON CONFLICT (id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("id") String id,
+                       @Param("type") String type,
+                       @Param("customerId") String customerId,
+                       @Param("eventCreated") long eventCreated,
+                       @Param("payload") String payload,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * Lock the next due events, at most one per customer: an event is only eligible while no
+     * older event of the same customer is still pending (leased or not). That keeps each
+     * customer's events in order across workers and replicas, while different customers proceed
+     * in parallel. A failing head event holds its customer back until it succeeds or is given up.
+     *
+     * <p>The row locks only last for the calling transaction, so the caller must stamp a lease
+     * ({@code locked_until}) before it commits.
+     */
+    @Query(value = "SELECT * FROM stripe_webhook_events e "
+        + "WHERE e.status = 'PENDING' AND e.next_attempt_at <= :now "
+        + "AND (e.locked_until IS NULL OR e.locked_until < :now) "
+        + "AND NOT EXISTS (SELECT 1 FROM stripe_webhook_events p "
+        + "    WHERE p.status = 'PENDING' AND p.customer_id = e.customer_id "
+        + "    AND (p.event_created < e.event_created OR (p.event_created = e.event_created AND p.id < e.id))) "
+        + "ORDER BY e.event_created "
+        + "LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<StripeWebhookEvent> lockDue(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    long countByStatus(StripeWebhookEvent.Status status);
+
+    /**
+     * Housekeeping: finished events older than the retention window. The window must stay longer
+     * than Stripe's redelivery horizon (three days) or a late copy would be processed again.
+     */
+    @Modifying
+    @Query("DELETE FROM StripeWebhookEvent e WHERE e.status <> com.rensights.model.StripeWebhookEvent.Status.PENDING "
+        + "AND e.receivedAt < :before")
+    int deleteFinishedBefore(@Param("before") LocalDateTime before);
+}
@@ -30,6 +30,10 @@ public interface TranslationRepository extends JpaRepository<Translation, UUID>
         String languageCode, String namespace, String translationKey
     );
 
+    // Namespaces a language has translations in (the startup cache warmer loads each)
+    @Query("SELECT DISTINCT t.namespace FROM Translation t WHERE t.languageCode = :languageCode")
+    List<String> findNamespacesByLanguageCode(@Param("languageCode") String languageCode);
+
     // Latest updated_at for a namespace. The admin save path bumps updated_at on
     // every change, so this is the real "last updated" date for content pages
     // (e.g. privacy-terms).
@@ -60,6 +60,12 @@ public interface UserRepository extends JpaRepository<User, UUID> {
         + "WHERE u.id = :userId AND u.welcomeEmailSentAt IS NULL")
     int claimWelcomeEmail(@Param("userId") UUID userId, @Param("sentAt") LocalDateTime sentAt);
 
+    /** Undo {@link #claimWelcomeEmail} for an email Graph never accepted, so the next run sends it. */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.welcomeEmailSentAt = NULL WHERE u.id = :userId")
+    int releaseWelcomeEmail(@Param("userId") UUID userId);
+
     /**
      * Accounts whose getting-started email is due. Same shape as
      * {@link #findWelcomeEmailDue}, on its own stamp and its own (longer) delay.
@@ -79,6 +85,12 @@ public interface UserRepository extends JpaRepository<User, UUID> {
         + "WHERE u.id = :userId AND u.gettingStartedEmailSentAt IS NULL")
     int claimGettingStartedEmail(@Param("userId") UUID userId, @Param("sentAt") LocalDateTime sentAt);
 
+    /** Undo {@link #claimGettingStartedEmail}; see {@link #releaseWelcomeEmail}. */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.gettingStartedEmailSentAt = NULL WHERE u.id = :userId")
+    int releaseGettingStartedEmail(@Param("userId") UUID userId);
+
     /**
      * Accounts whose feedback check-in is due. Same shape as {@link #findWelcomeEmailDue},
      * on its own stamp and a much longer delay.
@@ -97,4 +109,10 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     @Query("UPDATE User u SET u.feedbackEmailSentAt = :sentAt "
         + "WHERE u.id = :userId AND u.feedbackEmailSentAt IS NULL")
     int claimFeedbackEmail(@Param("userId") UUID userId, @Param("sentAt") LocalDateTime sentAt);
+
+    /** Undo {@link #claimFeedbackEmail}; see {@link #releaseWelcomeEmail}. */
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.feedbackEmailSentAt = NULL WHERE u.id = :userId")
+    int releaseFeedbackEmail(@Param("userId") UUID userId);
 }
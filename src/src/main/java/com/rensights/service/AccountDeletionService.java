@@ -7,12 +7,14 @@ import com.rensights.model.User;
 import com.rensights.repository.ActivityEventRepository;
 import com.rensights.repository.AnalysisRequestRepository;
 import com.rensights.repository.DeviceRepository;
+import com.rensights.repository.EmailOutboxRepository;
 import com.rensights.repository.LoginEventRepository;
 import com.rensights.repository.SubscriptionRepository;
 import com.rensights.repository.UserRepository;
 import com.rensights.repository.VerificationCodeRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -54,6 +56,7 @@ public class AccountDeletionService {
     private final ActivityEventRepository activityEventRepository;
     private final LoginEventRepository loginEventRepository;
     private final VerificationCodeRepository verificationCodeRepository;
+    private final EmailOutboxRepository emailOutboxRepository;
     private final FileStorageService fileStorageService;
     private final StripeService stripeService;
 
@@ -64,8 +67,9 @@ public class AccountDeletionService {
                                   ActivityEventRepository activityEventRepository,
                                   LoginEventRepository loginEventRepository,
                                   VerificationCodeRepository verificationCodeRepository,
+                                  EmailOutboxRepository emailOutboxRepository,
                                   FileStorageService fileStorageService,
-                                  StripeService stripeService) {
+                                  @Lazy StripeService stripeService) {
         this.userRepository = userRepository;
         this.subscriptionRepository = subscriptionRepository;
         this.analysisRequestRepository = analysisRequestRepository;
@@ -73,6 +77,7 @@ public class AccountDeletionService {
         this.activityEventRepository = activityEventRepository;
         this.loginEventRepository = loginEventRepository;
         this.verificationCodeRepository = verificationCodeRepository;
+        this.emailOutboxRepository = emailOutboxRepository;
         this.fileStorageService = fileStorageService;
         this.stripeService = stripeService;
     }
@@ -225,6 +230,7 @@ public class AccountDeletionService {
         loginEventRepository.deleteByUserId(userId);
         activityEventRepository.deleteByUserId(userId);
         verificationCodeRepository.deleteByEmail(email);
+        emailOutboxRepository.deleteByToEmail(email);
         verificationCodeRepository.deleteByEmail("reset:" + email);
     }
 
@@ -0,0 +1,43 @@
+package com.rensights.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.Map;
+
+/**
+ * The raw HTTP call that hands an analysis request to the analysis module, behind the
+ * {@code analysis-api} bulkhead and circuit breaker (see {@link DealsApiClient} for why).
+ *
+ * <p>The module shares its host with the deals API, so without these a slow module would hold
+ * request threads on both paths. Submission is best-effort - the request is already saved and
+ * the admin is notified either way - so a rejected or failed call is just logged by the caller.
+ */
+@Component
+public class AnalysisApiClient {
+
+    private final RestTemplate restTemplate;
+
+    @Value("${analysis.api.url:http://10.42.0.1:8000}")
+    private String analysisApiUrl;
+
+    public AnalysisApiClient(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
+    @Bulkhead(name = "analysis-api")
+    @CircuitBreaker(name = "analysis-api")
+    public JsonNode submitAnalysis(Map<String, Object> payload) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        return restTemplate.postForObject(analysisApiUrl + "/analysis_request",
+                new HttpEntity<>(payload, headers), JsonNode.class);
+    }
+}
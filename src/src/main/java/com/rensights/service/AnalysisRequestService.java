@@ -15,10 +15,6 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -43,14 +39,11 @@ public class AnalysisRequestService {
     private EmailService emailService;
 
     @Autowired
-    private RestTemplate restTemplate;
+    private AnalysisApiClient analysisApiClient;
 
     @Value("${app.admin.email:admin@rensights.com}")
     private String adminEmail;
 
-    @Value("${analysis.api.url:http://10.42.0.1:8000}")
-    private String analysisApiUrl;
-    
     @Transactional
     public AnalysisRequest createAnalysisRequest(
             String email,
@@ -220,7 +213,6 @@ public class AnalysisRequestService {
     }
 
     private String submitExternalAnalysis(AnalysisRequest request) {
-        String url = analysisApiUrl + "/analysis_request";
 
         Map<String, Object> payload = new LinkedHashMap<>();
         payload.put("analysis_request_id", request.getId().toString());
@@ -255,11 +247,7 @@ public class AnalysisRequestService {
         payload.put("additional_notes", request.getAdditionalNotes());
         payload.put("property_features", request.getFeatures());
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-
-        HttpEntity<Map<String, Object>> httpEntity = new HttpEntity<>(payload, headers);
-        JsonNode response = restTemplate.postForObject(url, httpEntity, JsonNode.class);
+        JsonNode response = analysisApiClient.submitAnalysis(payload);
         return extractAnalysisId(response);
     }
 
@@ -10,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -23,6 +24,9 @@ public class AnalyticsService {
 
     private static final Logger logger = LoggerFactory.getLogger(AnalyticsService.class);
     private static final int MAX_EVENTS_PER_BATCH = 50;
+    // Column lengths of activity_events.event_type and page_path.
+    private static final int MAX_EVENT_TYPE_LENGTH = 100;
+    private static final int MAX_PAGE_PATH_LENGTH = 500;
 
     @Autowired
     private UserRepository userRepository;
@@ -60,24 +64,36 @@ public class AnalyticsService {
         // Cap batch size - this is an ingestion endpoint the client controls,
         // don't let a runaway client flood the table in one request.
         int limit = Math.min(events.size(), MAX_EVENTS_PER_BATCH);
+        List<ActivityEvent> entities = new ArrayList<>(limit);
+        LocalDateTime now = LocalDateTime.now();
         for (int i = 0; i < limit; i++) {
             TrackEventRequest event = events.get(i);
             if (event.getEventType() == null || event.getEventType().isBlank()) {
                 continue;
             }
-            try {
-                ActivityEvent entity = ActivityEvent.builder()
-                        .userId(userId)
-                        .eventType(event.getEventType())
-                        .pagePath(event.getPagePath())
-                        .metadata(event.getMetadata())
-                        .occurredAt(LocalDateTime.now())
-                        .build();
-                activityEventRepository.save(entity);
-            } catch (Exception e) {
-                logger.warn("Failed to record activity event '{}' for user {}: {}",
-                        event.getEventType(), userId, e.getMessage());
+            // Saved as one batched insert, so an event the columns can't hold is dropped here
+            // rather than failing the rest with it.
+            if (event.getEventType().length() > MAX_EVENT_TYPE_LENGTH
+                    || (event.getPagePath() != null && event.getPagePath().length() > MAX_PAGE_PATH_LENGTH)) {
+                logger.warn("Dropping oversized activity event for user {}", userId);
+                continue;
             }
+            entities.add(ActivityEvent.builder()
+                    .userId(userId)
+                    .eventType(event.getEventType())
+                    .pagePath(event.getPagePath())
+                    .metadata(event.getMetadata())
+                    .occurredAt(now)
+                    .build());
+        }
+        if (entities.isEmpty()) {
+            return;
+        }
+        try {
+            activityEventRepository.saveAll(entities);
+        } catch (Exception e) {
+            logger.warn("Failed to record {} activity event(s) for user {}: {}",
+                    entities.size(), userId, e.getMessage());
         }
     }
 }
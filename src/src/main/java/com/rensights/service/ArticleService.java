@@ -13,6 +13,8 @@ import java.util.List;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import com.rensights.util.CompressedJson;
+import com.rensights.util.JsonCompressor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
@@ -32,6 +34,7 @@ public class ArticleService {
     private final ArticleRepository articleRepository;
     private final AppSettingRepository appSettingRepository;
     private final ArticleCategoryRepository articleCategoryRepository;
+    private final JsonCompressor jsonCompressor;
 
     @Cacheable(cacheNames = "articlesList", key = "'all'")
     @Transactional(readOnly = true)
@@ -44,14 +47,15 @@ public class ArticleService {
             .collect(Collectors.toList());
     }
 
+    /** The article as a ready-to-send JSON body; cached compressed, since bodies are full HTML. */
     @Cacheable(cacheNames = "articleBySlug", key = "#slug")
     @Transactional(readOnly = true)
-    public ArticleDTO getPublicBySlug(String slug) {
+    public CompressedJson getPublicBySlug(String slug) {
         if (!isArticlesEnabled()) {
             return null;
         }
         return articleRepository.findBySlugAndIsActiveTrue(slug)
-            .map(this::toDTO)
+            .map(article -> jsonCompressor.compress(toDTO(article)))
             .orElse(null);
     }
 
@@ -16,6 +16,7 @@ import java.time.LocalDateTime;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -47,9 +48,11 @@ public class AuthService {
     private LoginEventService loginEventService;
 
     @Autowired
+    @Lazy
     private StripeService stripeService;
 
     @Autowired
+    @Lazy
     private GoogleTokenVerifierService googleTokenVerifierService;
 
     @Autowired
@@ -110,7 +113,7 @@ public class AuthService {
             });
             // Generate verification code anyway (user can't register, but can't tell from response)
             String code = verificationCodeService.generateCode(request.getEmail());
-            emailService.sendVerificationCode(request.getEmail(), code);
+            emailService.queueVerificationCode(request.getEmail(), code);
             return null; // Return null to trigger verification code response
         }
         
@@ -160,7 +163,7 @@ public class AuthService {
         if (emailVerificationRequired) {
             // Send verification code
             String code = verificationCodeService.generateCode(savedUser.getEmail());
-            emailService.sendVerificationCode(savedUser.getEmail(), code);
+            emailService.queueVerificationCode(savedUser.getEmail(), code);
             return null; // Return null to indicate verification is required
         } else {
             // Auto-verify and login
@@ -339,7 +342,7 @@ public class AuthService {
                 finalUser = userRepository.save(user);
             } else {
                 String code = verificationCodeService.generateCode(user.getEmail());
-                emailService.sendVerificationCode(user.getEmail(), code);
+                emailService.queueVerificationCode(user.getEmail(), code);
                 logger.info("User {} email not verified. Sent new verification code.", user.getEmail());
                 return LoginResponse.builder()
                         .requiresVerification(true)
@@ -371,7 +374,7 @@ public class AuthService {
                     .build();
         } else {
             String code = verificationCodeService.generateCode(finalUser.getEmail());
-            emailService.sendVerificationCode(finalUser.getEmail(), code);
+            emailService.queueVerificationCode(finalUser.getEmail(), code);
 
             return LoginResponse.builder()
                     .requiresVerification(true)
@@ -470,7 +473,7 @@ public class AuthService {
         
         // Generate reset code using verification code service (key must match row email for verify/reset)
         String code = verificationCodeService.generateCode("reset:" + user.getEmail());
-        emailService.sendPasswordResetCode(email, code);
+        emailService.queuePasswordResetCode(email, code);
         logger.info("Password reset code sent to: {}", email);
         return true;
     }
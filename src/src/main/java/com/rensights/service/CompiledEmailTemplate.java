@@ -0,0 +1,109 @@
+package com.rensights.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An email template parsed once into literal chunks and variable slots.
+ *
+ * <p>Rendering walks the segments a single time into one pre-sized buffer, instead of one
+ * {@code String.replace} pass (and one full copy of ~15 KB of HTML) per variable.
+ *
+ * <p>Slots are written {@code {{NAME}}} and their values are HTML-escaped on the way in, which
+ * is what every value we substitute wants (a user's first name, a code). {@code {{{NAME}}}}
+ * inserts the value as-is, for the rare case where a caller is deliberately passing markup.
+ * A slot with no value in the map is left in the output exactly as written, as before.
+ */
+final class CompiledEmailTemplate {
+
+    /** Either literal text or a variable slot; exactly one of the two is meaningful. */
+    private record Segment(String literal, String variable, boolean escape) {
+    }
+
+    private final List<Segment> segments;
+    private final int literalLength;
+
+    private CompiledEmailTemplate(List<Segment> segments, int literalLength) {
+        this.segments = segments;
+        this.literalLength = literalLength;
+    }
+
+    static CompiledEmailTemplate compile(String source) {
+        List<Segment> segments = new ArrayList<>();
+        int literalLength = 0;
+        int pos = 0;
+        while (pos < source.length()) {
+            int open = source.indexOf("{{", pos);
+            if (open < 0) {
+                break;
+            }
+            boolean raw = source.startsWith("{{{", open);
+            String closer = raw ? "}}}" : "}}";
+            int nameStart = open + (raw ? 3 : 2);
+            int close = source.indexOf(closer, nameStart);
+            if (close < 0) {
+                break;
+            }
+            String name = source.substring(nameStart, close).trim();
+            if (name.isEmpty()) {
+                // "{{}}" is not a slot; keep it as text and carry on after it.
+                int end = close + closer.length();
+                segments.add(new Segment(source.substring(pos, end), null, false));
+                literalLength += end - pos;
+                pos = end;
+                continue;
+            }
+            if (open > pos) {
+                segments.add(new Segment(source.substring(pos, open), null, false));
+                literalLength += open - pos;
+            }
+            segments.add(new Segment(source.substring(open, close + closer.length()), name, !raw));
+            pos = close + closer.length();
+        }
+        if (pos < source.length()) {
+            segments.add(new Segment(source.substring(pos), null, false));
+            literalLength += source.length() - pos;
+        }
+        return new CompiledEmailTemplate(List.copyOf(segments), literalLength);
+    }
+
+    String render(Map<String, String> variables) {
+        // Values are short (names, codes); a little headroom covers them plus any escaping.
+        StringBuilder out = new StringBuilder(literalLength + 64 * Math.max(1, variables.size()));
+        for (Segment segment : segments) {
+            if (segment.variable() == null) {
+                out.append(segment.literal());
+                continue;
+            }
+            if (!variables.containsKey(segment.variable())) {
+                out.append(segment.literal());
+                continue;
+            }
+            String value = variables.get(segment.variable());
+            if (value == null) {
+                continue;
+            }
+            if (segment.escape()) {
+                appendEscaped(out, value);
+            } else {
+                out.append(value);
+            }
+        }
+        return out.toString();
+    }
+
+    private static void appendEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
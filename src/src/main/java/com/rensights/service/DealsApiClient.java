@@ -0,0 +1,46 @@
+package com.rensights.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.github.resilience4j.bulkhead.annotation.Bulkhead;
+import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * The raw HTTP calls to the deals API (the valuation module), behind the {@code deals-api}
+ * bulkhead and circuit breaker.
+ *
+ * <p>The bulkhead caps how many request threads can be waiting on the module at once, so a slow
+ * module costs at most that many Tomcat threads instead of all of them; callers beyond the cap
+ * are turned away immediately. The breaker opens on errors and on slow calls, after which calls
+ * fail fast until the module recovers. Either way the caller gets an exception straight away,
+ * and {@link DealsFetchService} answers from the last good data.
+ *
+ * <p>A separate bean so the limits apply to the network call only - cache hits in
+ * {@link DealsFetchService} never take a bulkhead permit.
+ */
+@Component
+public class DealsApiClient {
+
+    private final RestTemplate restTemplate;
+
+    @Value("${deals.api.url}")
+    private String dealsApiUrl;
+
+    public DealsApiClient(RestTemplate restTemplate) {
+        this.restTemplate = restTemplate;
+    }
+
+    @Bulkhead(name = "deals-api")
+    @CircuitBreaker(name = "deals-api")
+    public JsonNode fetchDeals() {
+        return restTemplate.getForObject(dealsApiUrl, JsonNode.class);
+    }
+
+    @Bulkhead(name = "deals-api")
+    @CircuitBreaker(name = "deals-api")
+    public JsonNode fetchDeal(String dealId) {
+        return restTemplate.getForObject(dealsApiUrl + "/" + dealId, JsonNode.class);
+    }
+}
@@ -3,18 +3,35 @@ package com.rensights.service;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rensights.util.CompressedJson;
+import com.rensights.util.JsonCompressor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.client.HttpClientErrorException;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Fetches and normalizes weekly-deals data from the upstream third-party API.
@@ -24,21 +41,141 @@ import java.util.UUID;
  * pagination stay in the controller and operate on the returned (cached) list, so the HTTP
  * response is byte-for-byte identical to the previous inline implementation.
  *
- * <p>Reuses the shared, timeout-bounded {@link RestTemplate} bean from
- * {@code com.rensights.config.RestClientConfig} via constructor injection.
+ * <p>The HTTP calls go through {@link DealsApiClient} (bulkhead + circuit breaker). When it
+ * fails with anything but a 4xx - module down, too slow, breaker open, bulkhead full - the last
+ * good response is served instead, for up to {@code app.deals.stale-ttl}. A stale answer is
+ * never put in the regular cache, so the first good response after recovery replaces it.
+ *
+ * <p>Each good list response is also written to disk with the detail bodies held at the time
+ * ({@link DealsSnapshotStore}). A starting pod loads that file before it reports ready, so its
+ * first deals requests are answered from memory rather than waiting on the module, and then
+ * refreshes the list in the background on the application task executor.
  */
 @Service
 public class DealsFetchService {
 
     private static final Logger logger = LoggerFactory.getLogger(DealsFetchService.class);
 
-    private final RestTemplate restTemplate;
+    private final DealsApiClient dealsApi;
+    private final MeterRegistry meterRegistry;
+    private final Duration staleTtl;
+
+    /** Last successful list, kept past the cache TTL for when the module is unavailable. */
+    private volatile DealsPayload lastGoodDeals;
+    private volatile Instant lastGoodDealsAt;
+
+    /** Last successful detail per deal id, for the same purpose. */
+    private final Map<String, CompressedJson> lastGoodDetails;
+
+    private final JsonCompressor jsonCompressor;
+    private final DealsSnapshotStore snapshotStore;
+    private final CacheManager cacheManager;
+    private final Duration snapshotMaxAge;
+    private final TaskExecutor taskExecutor;
+
+    /** Set when startup was served from a snapshot, so the list is refreshed once ready. */
+    private volatile boolean refreshOnReady;
+
+    public DealsFetchService(DealsApiClient dealsApi, MeterRegistry meterRegistry, JsonCompressor jsonCompressor,
+                             DealsSnapshotStore snapshotStore, CacheManager cacheManager,
+                             @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+                             TaskExecutor taskExecutor,
+                             @Value("${app.deals.stale-ttl:24h}") Duration staleTtl,
+                             @Value("${app.deals.snapshot.max-age:6h}") Duration snapshotMaxAge) {
+        if (snapshotMaxAge.compareTo(staleTtl) > 0) {
+            // A snapshot seeded as fresh must not be older than what an outage may serve as stale.
+            throw new IllegalStateException("app.deals.snapshot.max-age (" + snapshotMaxAge
+                + ") cannot exceed app.deals.stale-ttl (" + staleTtl + ")");
+        }
+        this.dealsApi = dealsApi;
+        this.meterRegistry = meterRegistry;
+        this.jsonCompressor = jsonCompressor;
+        this.snapshotStore = snapshotStore;
+        this.cacheManager = cacheManager;
+        this.taskExecutor = taskExecutor;
+        this.staleTtl = staleTtl;
+        this.snapshotMaxAge = snapshotMaxAge;
+        this.lastGoodDetails = Caffeine.newBuilder()
+            .expireAfterWrite(staleTtl)
+            .maximumSize(500)
+            .<String, CompressedJson>build()
+            .asMap();
+    }
 
-    @Value("${deals.api.url}")
-    private String dealsApiUrl;
+    /**
+     * Load the on-disk snapshot, if any. Runs during context startup, i.e. before the readiness
+     * probe passes, and never calls the module.
+     *
+     * <p>A snapshot younger than {@code stale-ttl} becomes the stale fallback; one younger than
+     * {@code app.deals.snapshot.max-age} (at most {@code stale-ttl}) also seeds the
+     * {@code dealsAll} and {@code dealDetail} caches, so it is served as-is until the refresh below
+     * replaces it. Anything older is ignored: it is past what an outage would be allowed to serve.
+     */
+    @PostConstruct
+    void loadSnapshot() {
+        long start = System.nanoTime();
+        DealsSnapshotStore.Snapshot snapshot = snapshotStore.load().orElse(null);
+        if (snapshot == null) {
+            return;
+        }
+        Duration age = Duration.between(snapshot.writtenAt(), Instant.now());
+        if (age.compareTo(staleTtl) > 0) {
+            logger.info("Ignoring deals snapshot from {}: older than stale-ttl", snapshot.writtenAt());
+            return;
+        }
+        DealsPayload payload;
+        try {
+            DealsPayload stored = jsonCompressor.decompress(snapshot.deals(), DealsPayload.class);
+            payload = new DealsPayload(stored.deals(), stored.summary());
+        } catch (RuntimeException e) {
+            logger.warn("Ignoring deals snapshot from {}: {}", snapshot.writtenAt(), e.getMessage());
+            return;
+        }
+        lastGoodDeals = payload;
+        lastGoodDealsAt = snapshot.writtenAt();
+        lastGoodDetails.putAll(snapshot.details());
+        if (age.compareTo(snapshotMaxAge) <= 0) {
+            Cache deals = cacheManager.getCache("dealsAll");
+            Cache details = cacheManager.getCache("dealDetail");
+            if (deals != null) {
+                deals.put("all", payload);
+            }
+            if (details != null) {
+                snapshot.details().forEach(details::put);
+            }
+        }
+        refreshOnReady = true;
+        long elapsed = System.nanoTime() - start;
+        Timer.builder("deals.snapshot.load")
+            .description("Time to read the deals snapshot and seed the caches at startup")
+            .register(meterRegistry)
+            .record(elapsed, TimeUnit.NANOSECONDS);
+        logger.info("Loaded deals snapshot from {} ({} deals, {} details) in {} ms",
+            snapshot.writtenAt(), payload.deals().size(), snapshot.details().size(),
+            TimeUnit.NANOSECONDS.toMillis(elapsed));
+    }
 
-    public DealsFetchService(RestTemplate restTemplate) {
-        this.restTemplate = restTemplate;
+    /**
+     * After a start from a snapshot, fetch the live list off the startup path. A failure is only
+     * logged: the snapshot keeps being served until the cache entry expires.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void refreshAfterSnapshot() {
+        if (!refreshOnReady) {
+            return;
+        }
+        taskExecutor.execute(() -> {
+            try {
+                DealsPayload payload = fetchFresh();
+                Cache deals = cacheManager.getCache("dealsAll");
+                if (deals != null) {
+                    deals.put("all", payload);
+                }
+                logger.info("Refreshed deals list after starting from a snapshot");
+            } catch (RuntimeException e) {
+                logger.warn("Deals refresh after snapshot start failed: {}", e.getMessage());
+            }
+        });
     }
 
     /**
@@ -47,7 +184,11 @@ public class DealsFetchService {
      *
      * <p>{@code summary} is {@code null} when upstream sends no summary object.
      */
-    public record DealsPayload(List<Map<String, Object>> deals, Map<String, Object> summary) {}
+    public record DealsPayload(List<Map<String, Object>> deals, Map<String, Object> summary, boolean stale) {
+        public DealsPayload(List<Map<String, Object>> deals, Map<String, Object> summary) {
+            this(deals, summary, false);
+        }
+    }
 
     /**
      * Fetch + normalize the full upstream payload (post-transform, PRE-filter, PRE-paginate).
@@ -56,11 +197,35 @@ public class DealsFetchService {
      * (HttpClientErrorException / HttpServerErrorException / connectivity), the exception
      * propagates and nothing is cached, so a transient failure never sticks. An upstream response
      * with no {@code data} array yields an empty list (matching the previous empty-page behavior).
+     *
+     * <p>If the call fails and a good response from the last {@code stale-ttl} is held, that is
+     * returned instead, flagged {@link DealsPayload#stale()} and left out of the cache.
      */
-    @Cacheable(cacheNames = "dealsAll", key = "'all'")
+    @Cacheable(cacheNames = "dealsAll", key = "'all'", unless = "#result.stale()")
     public DealsPayload getDealsPayload() {
-        JsonNode apiResponse = restTemplate.getForObject(dealsApiUrl, JsonNode.class);
+        try {
+            return fetchFresh();
+        } catch (RuntimeException e) {
+            DealsPayload last = lastGoodDeals;
+            Instant lastAt = lastGoodDealsAt;
+            if (!canServeStale(e) || last == null || lastAt.plus(staleTtl).isBefore(Instant.now())) {
+                throw e;
+            }
+            logger.warn("Deals API unavailable ({}), serving the list from {}", e.getMessage(), lastAt);
+            staleServed("list");
+            return new DealsPayload(last.deals(), last.summary(), true);
+        }
+    }
+
+    private DealsPayload fetchFresh() {
+        DealsPayload payload = normalizeDeals(dealsApi.fetchDeals());
+        lastGoodDeals = payload;
+        lastGoodDealsAt = Instant.now();
+        snapshotStore.saveAsync(jsonCompressor.compress(payload), lastGoodDetails);
+        return payload;
+    }
 
+    private DealsPayload normalizeDeals(JsonNode apiResponse) {
         List<Map<String, Object>> allDeals = new ArrayList<>();
         if (apiResponse == null) {
             return new DealsPayload(allDeals, null);
@@ -262,16 +427,60 @@ public class DealsFetchService {
      * not-found result is NOT cached (a transient 404 must not stick for the TTL). Upstream HTTP
      * errors propagate as exceptions (never cached); a {@code null} upstream body returns
      * {@code null} and is likewise skipped by {@code unless}.
+     *
+     * <p>The result is the ready-to-send JSON body, kept gzip-compressed in the cache. When the
+     * call fails, see {@link #staleDealById}.
      */
     @Cacheable(cacheNames = "dealDetail", key = "#dealId", unless = "#result == null")
-    public Map<String, Object> getDealById(String dealId) {
-        String apiUrl = dealsApiUrl + "/" + dealId;
-        JsonNode apiResponse = restTemplate.getForObject(apiUrl, JsonNode.class);
-
+    public CompressedJson getDealById(String dealId) {
+        JsonNode apiResponse = dealsApi.fetchDeal(dealId);
         if (apiResponse == null) {
             return null;
         }
 
+        CompressedJson dto = jsonCompressor.compress(normalizeDeal(apiResponse));
+        lastGoodDetails.put(dealId, dto);
+        return dto;
+    }
+
+    /**
+     * Fallback for a failed {@link #getDealById}: the copy of this deal last fetched successfully
+     * within {@code stale-ttl}, with {@code "stale": true} added. Kept apart from the cached
+     * method so a stale answer is never cached.
+     *
+     * @throws RuntimeException {@code cause}, if it was a 4xx or there is no copy to serve
+     */
+    public CompressedJson staleDealById(String dealId, RuntimeException cause) {
+        CompressedJson last = lastGoodDetails.get(dealId);
+        if (!canServeStale(cause) || last == null) {
+            throw cause;
+        }
+        logger.warn("Deals API unavailable ({}), serving a stale copy of deal {}", cause.getMessage(), dealId);
+        staleServed("detail");
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stale = jsonCompressor.decompress(last, Map.class);
+        stale.put("stale", true);
+        return jsonCompressor.compress(stale);
+    }
+
+    /**
+     * A 4xx is the module answering, not failing (an unknown id, a bad request), so it is passed
+     * on as-is; anything else is an outage and may be covered with stale data.
+     */
+    private static boolean canServeStale(RuntimeException e) {
+        return !(e instanceof HttpClientErrorException);
+    }
+
+    private void staleServed(String kind) {
+        Counter.builder("deals.stale_served")
+            .description("Deals responses answered from the last good copy because the API was unavailable")
+            .tag("kind", kind)
+            .register(meterRegistry)
+            .increment();
+    }
+
+    private Map<String, Object> normalizeDeal(JsonNode apiResponse) {
+
         // Build deal DTO
         Map<String, Object> dto = new HashMap<>();
 
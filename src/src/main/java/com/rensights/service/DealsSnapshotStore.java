@@ -0,0 +1,172 @@
+package com.rensights.service;
+
+import com.rensights.util.CompressedJson;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * The last good deals list and deal details, kept in a file so a new pod can answer the deals
+ * page before it has reached the valuation module (see DealsFetchService).
+ *
+ * <p>Format: magic, write time, the list as gzipped JSON, then each detail as id plus gzipped
+ * JSON, and a CRC32 of all of it. The bodies are the same {@link CompressedJson} bytes the
+ * caches hold, so writing is a copy. Reads map the file and check the CRC; a truncated or
+ * corrupt file is ignored, never half-loaded.
+ *
+ * <p>Writes happen off the request thread and only the latest one matters, so a burst of
+ * refreshes collapses into one write. The file is replaced by an atomic rename, which also keeps
+ * concurrent writers on a shared volume from interleaving.
+ */
+@Component
+public class DealsSnapshotStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(DealsSnapshotStore.class);
+
+    private static final int MAGIC = 0x52445331; // "RDS1"
+
+    public record Snapshot(CompressedJson deals, Map<String, CompressedJson> details, Instant writtenAt) {
+    }
+
+    private final Path file;
+    private final boolean enabled;
+    private final ThreadPoolExecutor writer;
+
+    public DealsSnapshotStore(@Value("${app.deals.snapshot.enabled:true}") boolean enabled,
+                              @Value("${app.deals.snapshot.path:${reports.storage.path:/data/reports}/.snapshots/deals.bin}") Path file) {
+        this.enabled = enabled;
+        this.file = file;
+        // One pending write at most; a newer one replaces it.
+        this.writer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1),
+            new CustomizableThreadFactory("deals-snapshot-"), new ThreadPoolExecutor.DiscardOldestPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+    public Optional<Snapshot> load() {
+        if (!enabled || !Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return Optional.of(parse(buffer));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Ignoring unreadable deals snapshot {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void saveAsync(CompressedJson deals, Map<String, CompressedJson> details) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, CompressedJson> copy = new LinkedHashMap<>(details);
+        writer.execute(() -> {
+            try {
+                write(deals, copy);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not write deals snapshot {}: {}", file, e.getMessage());
+            }
+        });
+    }
+
+    private void write(CompressedJson deals, Map<String, CompressedJson> details) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path temp = Files.createTempFile(file.getParent(), "deals", ".tmp");
+        try {
+            CRC32 crc = new CRC32();
+            try (OutputStream out = Files.newOutputStream(temp);
+                 CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(out, 64 * 1024), crc);
+                 DataOutputStream data = new DataOutputStream(checked)) {
+                data.writeInt(MAGIC);
+                data.writeLong(Instant.now().toEpochMilli());
+                writeBlob(data, deals.gzipped());
+                data.writeInt(details.size());
+                for (Map.Entry<String, CompressedJson> entry : details.entrySet()) {
+                    writeBlob(data, entry.getKey().getBytes(StandardCharsets.UTF_8));
+                    writeBlob(data, entry.getValue().gzipped());
+                }
+                data.flush();
+                // Not part of the checksum it records.
+                new DataOutputStream(out).writeLong(crc.getValue());
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("Wrote deals snapshot with {} detail(s) to {}", details.size(), file);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeBlob(DataOutputStream data, byte[] bytes) throws IOException {
+        data.writeInt(bytes.length);
+        data.write(bytes);
+    }
+
+    private static Snapshot parse(ByteBuffer buffer) {
+        int end = buffer.limit() - Long.BYTES;
+        if (end < 0) {
+            throw new IllegalStateException("file too short");
+        }
+        CRC32 crc = new CRC32();
+        crc.update(buffer.duplicate().limit(end));
+        if (crc.getValue() != buffer.getLong(end)) {
+            throw new IllegalStateException("checksum mismatch");
+        }
+        buffer.limit(end);
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IllegalStateException("not a deals snapshot");
+            }
+            Instant writtenAt = Instant.ofEpochMilli(buffer.getLong());
+            CompressedJson deals = CompressedJson.fromGzipped(readBlob(buffer));
+            int count = buffer.getInt();
+            Map<String, CompressedJson> details = new LinkedHashMap<>(Math.max(16, count * 2));
+            for (int i = 0; i < count; i++) {
+                String id = new String(readBlob(buffer), StandardCharsets.UTF_8);
+                details.put(id, CompressedJson.fromGzipped(readBlob(buffer)));
+            }
+            return new Snapshot(deals, details, writtenAt);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalStateException("truncated", e);
+        }
+    }
+
+    private static byte[] readBlob(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalStateException("bad length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,207 @@
+package com.rensights.service;
+
+import com.rensights.model.EmailOutboxMessage;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the email outbox on a small worker pool.
+ *
+ * <p><b>Two lanes.</b> The regular poll sends everything that is due. Code emails
+ * (verification, password reset) also get a fast lane: as soon as the enqueuing transaction
+ * commits, a worker is woken to send code-priority messages only, so the user sees the code in
+ * seconds rather than at the next poll. Both lanes claim through {@code SKIP LOCKED} and a lease,
+ * so they can overlap with each other and with other replicas safely.
+ *
+ * <p><b>Circuit-breaker aware.</b> While the {@code microsoft-graph} breaker is open, nothing is
+ * claimed - retrying into an open breaker would only burn attempts. Messages that were already
+ * claimed when the breaker rejected them are put back without spending an attempt.
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private final EmailOutboxService outbox;
+    private final EmailService emailService;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreaker graphBreaker;
+    private final ExecutorService workers;
+    private final ExecutorService fastLane;
+    private final int workerCount;
+    private final AtomicInteger activeDrains = new AtomicInteger();
+
+    @Value("${app.email-outbox.enabled:true}")
+    private boolean enabled;
+
+    /** Sent and abandoned rows are kept this long for troubleshooting, then purged. */
+    @Value("${app.email-outbox.retention:7d}")
+    private Duration retention;
+
+    public EmailOutboxDispatcher(EmailOutboxService outbox, EmailService emailService, MeterRegistry meterRegistry,
+                                 ObjectProvider<CircuitBreakerRegistry> circuitBreakers,
+                                 @Value("${app.email-outbox.workers:4}") int workerCount) {
+        this.outbox = outbox;
+        this.emailService = emailService;
+        this.meterRegistry = meterRegistry;
+        CircuitBreakerRegistry registry = circuitBreakers.getIfAvailable();
+        this.graphBreaker = registry == null ? null : registry.circuitBreaker("microsoft-graph");
+        this.workerCount = Math.max(1, workerCount);
+        this.workers = Executors.newFixedThreadPool(this.workerCount, new CustomizableThreadFactory("email-outbox-"));
+        // Its own thread, so a code email never queues behind a poll that is draining a backlog.
+        this.fastLane = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("email-outbox-fast-"));
+
+        Gauge.builder("email_outbox.pending", outbox, EmailOutboxService::pendingCount)
+            .description("Outbox messages not yet sent or abandoned")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdown();
+        fastLane.shutdown();
+    }
+
+    /** Fast lane: a code email was just committed, send it now rather than at the next poll. */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onEnqueued(EmailOutboxService.Enqueued event) {
+        if (!enabled || event.priority() > EmailOutboxMessage.PRIORITY_CODE) {
+            return;
+        }
+        try {
+            fastLane.execute(() -> drain(EmailOutboxMessage.PRIORITY_CODE, "code"));
+        } catch (RejectedExecutionException e) {
+            // Shutting down; the next poll on any replica will pick it up.
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.email-outbox.poll-interval-ms:5000}",
+               initialDelayString = "${app.email-outbox.initial-delay-ms:15000}")
+    public void poll() {
+        if (!enabled) {
+            return;
+        }
+        // Top the pool up to one drain per worker without waiting on them: the scheduler thread
+        // is shared with the lifecycle email jobs. Only this method increments, so no race.
+        while (activeDrains.get() < workerCount) {
+            activeDrains.incrementAndGet();
+            try {
+                workers.execute(() -> {
+                    try {
+                        drain(Integer.MAX_VALUE, "all");
+                    } finally {
+                        activeDrains.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                activeDrains.decrementAndGet();
+                return;
+            }
+        }
+    }
+
+    @Scheduled(cron = "${app.email-outbox.purge-cron:0 30 3 * * *}")
+    public void purge() {
+        int removed = outbox.purgeFinishedBefore(LocalDateTime.now().minus(retention));
+        if (removed > 0) {
+            logger.info("Purged {} finished outbox email(s)", removed);
+        }
+    }
+
+    /** Claim and send batches until nothing at or above {@code maxPriority} is due. */
+    private void drain(int maxPriority, String lane) {
+        while (!breakerOpen()) {
+            List<EmailOutboxMessage> batch;
+            try {
+                batch = outbox.claimDue(maxPriority, MicrosoftGraphEmailService.MAX_BATCH_SIZE);
+            } catch (Exception e) {
+                logger.error("Email outbox: could not claim messages: {}", e.getMessage());
+                return;
+            }
+            if (batch.isEmpty() || !send(batch, lane)) {
+                return;
+            }
+        }
+    }
+
+    /** @return false if the breaker refused the batch and draining should stop */
+    private boolean send(List<EmailOutboxMessage> batch, String lane) {
+        List<OutgoingEmail> emails = new ArrayList<>(batch.size());
+        for (EmailOutboxMessage message : batch) {
+            emails.add(new OutgoingEmail(message.getToEmail(), message.getSubject(), message.getBody(),
+                message.isHtml(), message.getReplyTo()));
+        }
+
+        List<String> failures;
+        try {
+            failures = emailService.sendEmails(emails);
+        } catch (CallNotPermittedException e) {
+            outbox.release(batch.stream().map(EmailOutboxMessage::getId).toList());
+            logger.warn("Email outbox: Graph breaker open, {} message(s) put back", batch.size());
+            return false;
+        } catch (Exception e) {
+            String error = e.getMessage();
+            failures = new ArrayList<>(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                failures.add(error == null ? e.getClass().getSimpleName() : error);
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < batch.size(); i++) {
+            EmailOutboxMessage message = batch.get(i);
+            UUID id = message.getId();
+            if (failures.get(i) == null) {
+                outbox.markSent(id);
+                counter("email_outbox.sent", lane).increment();
+                Timer.builder("email_outbox.delivery_delay")
+                    .description("Time from enqueue to hand-off to Graph")
+                    .tag("lane", lane)
+                    .register(meterRegistry)
+                    .record(Duration.between(message.getCreatedAt(), now));
+            } else if (outbox.markFailed(id, failures.get(i))) {
+                counter("email_outbox.retried", lane).increment();
+            } else {
+                counter("email_outbox.abandoned", lane).increment();
+            }
+        }
+        return true;
+    }
+
+    private boolean breakerOpen() {
+        if (graphBreaker == null) {
+            return false;
+        }
+        CircuitBreaker.State state = graphBreaker.getState();
+        return state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN;
+    }
+
+    private Counter counter(String name, String lane) {
+        return Counter.builder(name).tag("lane", lane).register(meterRegistry);
+    }
+}
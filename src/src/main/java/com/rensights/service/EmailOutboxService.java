@@ -0,0 +1,160 @@
+package com.rensights.service;
+
+import com.rensights.model.EmailOutboxMessage;
+import com.rensights.repository.EmailOutboxRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The email outbox: requests write the message here, in their own transaction, and return.
+ * {@link EmailOutboxDispatcher} does the actual sending in the background.
+ *
+ * <p>Because the row is written alongside the change that caused it, a rolled-back sign-up never
+ * mails a code, and a committed one always will, even if the pod dies straight after. What the
+ * request no longer waits for is the Azure token and Graph round trip.
+ *
+ * <p>This class owns every state change of an outbox row (enqueue, lease, sent, retry, give up)
+ * so the dispatcher stays free of transactions.
+ */
+@Service
+public class EmailOutboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxService.class);
+
+    /** Published on enqueue; the dispatcher picks it up after commit to send code emails now. */
+    public record Enqueued(int priority) {
+    }
+
+    private final EmailOutboxRepository repository;
+    private final ApplicationEventPublisher events;
+
+    @Value("${app.email-outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    /** First retry delay; doubles per attempt up to {@code max-backoff}. */
+    @Value("${app.email-outbox.base-backoff:10s}")
+    private Duration baseBackoff;
+
+    @Value("${app.email-outbox.max-backoff:15m}")
+    private Duration maxBackoff;
+
+    /** How long a worker holds a claimed row before another may take it over. */
+    @Value("${app.email-outbox.lease:2m}")
+    private Duration lease;
+
+    public EmailOutboxService(EmailOutboxRepository repository, ApplicationEventPublisher events) {
+        this.repository = repository;
+        this.events = events;
+    }
+
+    /**
+     * Queue a message. Joins the caller's transaction when there is one.
+     *
+     * @param expiresAt null if the message never goes stale
+     */
+    @Transactional
+    public void enqueue(OutgoingEmail email, int priority, LocalDateTime expiresAt) {
+        repository.save(EmailOutboxMessage.builder()
+                .priority(priority)
+                .toEmail(email.toEmail())
+                .subject(email.subject())
+                .body(email.body())
+                .html(email.isHtml())
+                .replyTo(email.replyToEmail())
+                .expiresAt(expiresAt)
+                .build());
+        events.publishEvent(new Enqueued(priority));
+    }
+
+    /**
+     * Lease up to {@code limit} due messages at or above the given urgency. Each lease counts as
+     * an attempt, so a worker that dies mid-send still uses one up.
+     */
+    @Transactional
+    public List<EmailOutboxMessage> claimDue(int maxPriority, int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<EmailOutboxMessage> due = repository.lockDue(now, maxPriority, limit);
+        for (EmailOutboxMessage message : due) {
+            message.setLockedUntil(now.plus(lease));
+            message.setAttempts(message.getAttempts() + 1);
+        }
+        return due;
+    }
+
+    @Transactional
+    public void markSent(UUID id) {
+        repository.findById(id).ifPresent(message -> {
+            message.setStatus(EmailOutboxMessage.Status.SENT);
+            message.setSentAt(LocalDateTime.now());
+            message.setLockedUntil(null);
+            message.setLastError(null);
+            // The body may carry a live code; nothing needs it once it has gone out.
+            message.setBody(null);
+        });
+    }
+
+    /**
+     * Record a failed attempt: schedule a retry with exponential backoff, or give up once the
+     * attempts are spent or the message has gone stale.
+     *
+     * @return true if the message will be retried
+     */
+    @Transactional
+    public boolean markFailed(UUID id, String error) {
+        EmailOutboxMessage message = repository.findById(id).orElse(null);
+        if (message == null) {
+            return false;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Duration backoff = backoff(message.getAttempts());
+        LocalDateTime retryAt = now.plus(backoff);
+
+        message.setLockedUntil(null);
+        message.setLastError(error == null ? null : error.substring(0, Math.min(error.length(), 1000)));
+        boolean stale = message.getExpiresAt() != null && retryAt.isAfter(message.getExpiresAt());
+        if (message.getAttempts() >= maxAttempts || stale) {
+            message.setStatus(EmailOutboxMessage.Status.FAILED);
+            message.setBody(null);
+            logger.error("Outbox email {} to {} abandoned after {} attempt(s){}: {}", id, message.getToEmail(),
+                    message.getAttempts(), stale ? " (expired)" : "", error);
+            return false;
+        }
+        message.setNextAttemptAt(retryAt);
+        logger.warn("Outbox email {} to {} failed (attempt {}), retrying in {}s: {}", id, message.getToEmail(),
+                message.getAttempts(), backoff.toSeconds(), error);
+        return true;
+    }
+
+    /** Put leased messages back without spending an attempt (e.g. the breaker opened). */
+    @Transactional
+    public void release(List<UUID> ids) {
+        repository.findAllById(ids).forEach(message -> {
+            message.setLockedUntil(null);
+            message.setAttempts(Math.max(0, message.getAttempts() - 1));
+        });
+    }
+
+    public long pendingCount() {
+        return repository.countByStatus(EmailOutboxMessage.Status.PENDING);
+    }
+
+    @Transactional
+    public int purgeFinishedBefore(LocalDateTime before) {
+        return repository.deleteFinishedBefore(before);
+    }
+
+    private Duration backoff(int attempts) {
+        long factor = 1L << Math.min(Math.max(attempts - 1, 0), 20);
+        Duration delay = baseBackoff.multipliedBy(factor);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+}
@@ -1,19 +1,23 @@
 package com.rensights.service;
 
+import com.rensights.model.EmailOutboxMessage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
-import org.springframework.web.util.HtmlUtils;
-
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -23,11 +27,15 @@ public class EmailService {
     
     
     @Autowired(required = false)
+    @Lazy
     private MicrosoftGraphEmailService graphEmailService;
 
     @Autowired
     private EmailTemplateService emailTemplateService;
 
+    @Autowired
+    private EmailOutboxService emailOutboxService;
+
     @Value("${spring.mail.from:no-reply@rensights.com}")
     private String fromEmail;
     
@@ -42,38 +50,24 @@ public class EmailService {
     @Value("${app.email.reply-to:info@rensights.com}")
     private String replyToEmail;
 
-    public void sendVerificationCode(String toEmail, String code) {
-        logger.info("=== EmailService.sendVerificationCode called ===");
-        logger.info("Email enabled: {}", emailEnabled);
-        logger.info("Use Graph API: {}", useGraphApi);
-        logger.info("From email: {}", fromEmail);
-        logger.info("To email: {}", toEmail);
-        
+    /**
+     * Queue the sign-up verification code in the outbox. Returns once the row is written - the
+     * caller no longer waits on the Graph round trip, and a failed send is retried in the
+     * background (see EmailOutboxDispatcher) until the code itself expires.
+     */
+    public void queueVerificationCode(String toEmail, String code) {
         if (!emailEnabled) {
             // SECURITY FIX: Never log verification codes
             logger.warn("Email is disabled. Verification code for {}: [REDACTED]", toEmail);
             return;
         }
-        
-        String subject = "Rensights - Email Verification Code";
+
         String body = emailTemplateService.render("verification-code", Map.of(
             "CODE", code,
             "EXPIRY_MINUTES", String.valueOf(VerificationCodeService.CODE_EXPIRY_MINUTES)
         ));
-
-        // Use Microsoft Graph API (required - no SMTP fallback)
-        if (!useGraphApi || graphEmailService == null) {
-            logger.error("Microsoft Graph API is not configured! Email cannot be sent.");
-            throw new RuntimeException("Microsoft Graph API is required for email sending. Please configure MICROSOFT_TENANT_ID, MICROSOFT_CLIENT_ID, and MICROSOFT_CLIENT_SECRET.");
-        }
-
-        try {
-            graphEmailService.sendEmail(toEmail, subject, body, true);
-            logger.info("✅ Email sent successfully via Microsoft Graph to: {}", toEmail);
-        } catch (Exception e) {
-            logger.error("❌ Failed to send email via Microsoft Graph to: {}", toEmail, e);
-            throw new RuntimeException("Failed to send verification email: " + e.getMessage(), e);
-        }
+        queueCodeEmail(new OutgoingEmail(toEmail, "Rensights - Email Verification Code", body, true, null));
+        logger.info("Verification code email queued for: {}", toEmail);
     }
     
     /**
@@ -94,16 +88,9 @@ public class EmailService {
             throw new RuntimeException("Microsoft Graph API is required for email sending.");
         }
 
-        // Falls back to a neutral greeting rather than "Hi ," when we have no name on file.
-        String greetingName = firstName != null && !firstName.isBlank() ? firstName.trim() : "there";
-        String subject = "Welcome to Rensights";
-        // The name is user-submitted, so it is escaped before it lands in the markup.
-        String body = emailTemplateService.render("welcome", Map.of(
-            "first_name", HtmlUtils.htmlEscape(greetingName)
-        ));
-
+        OutgoingEmail email = composeWelcomeEmail(toEmail, firstName);
         try {
-            graphEmailService.sendEmail(toEmail, subject, body, true, replyToEmail);
+            graphEmailService.sendEmail(toEmail, email.subject(), email.body(), true, replyToEmail);
             logger.info("✅ Welcome email sent to: {}", toEmail);
         } catch (Exception e) {
             logger.error("❌ Failed to send welcome email to: {}", toEmail, e);
@@ -128,15 +115,9 @@ public class EmailService {
             throw new RuntimeException("Microsoft Graph API is required for email sending.");
         }
 
-        String greetingName = firstName != null && !firstName.isBlank() ? firstName.trim() : "there";
-        String subject = "A quick introduction to Rensights";
-        // The name is user-submitted, so it is escaped before it lands in the markup.
-        String body = emailTemplateService.render("getting-started", Map.of(
-            "first_name", HtmlUtils.htmlEscape(greetingName)
-        ));
-
+        OutgoingEmail email = composeGettingStartedEmail(toEmail, firstName);
         try {
-            graphEmailService.sendEmail(toEmail, subject, body, true, replyToEmail);
+            graphEmailService.sendEmail(toEmail, email.subject(), email.body(), true, replyToEmail);
             logger.info("✅ Getting-started email sent to: {}", toEmail);
         } catch (Exception e) {
             logger.error("❌ Failed to send getting-started email to: {}", toEmail, e);
@@ -161,15 +142,9 @@ public class EmailService {
             throw new RuntimeException("Microsoft Graph API is required for email sending.");
         }
 
-        String greetingName = firstName != null && !firstName.isBlank() ? firstName.trim() : "there";
-        String subject = "How is Rensights working for you?";
-        // The name is user-submitted, so it is escaped before it lands in the markup.
-        String body = emailTemplateService.render("feedback", Map.of(
-            "first_name", HtmlUtils.htmlEscape(greetingName)
-        ));
-
+        OutgoingEmail email = composeFeedbackEmail(toEmail, firstName);
         try {
-            graphEmailService.sendEmail(toEmail, subject, body, true, replyToEmail);
+            graphEmailService.sendEmail(toEmail, email.subject(), email.body(), true, replyToEmail);
             logger.info("✅ Feedback email sent to: {}", toEmail);
         } catch (Exception e) {
             logger.error("❌ Failed to send feedback email to: {}", toEmail, e);
@@ -177,39 +152,71 @@ public class EmailService {
         }
     }
 
-    public void sendPasswordResetCode(String toEmail, String code) {
-        logger.info("=== EmailService.sendPasswordResetCode called ===");
-        logger.info("Email enabled: {}", emailEnabled);
-        logger.info("Use Graph API: {}", useGraphApi);
-        logger.info("From email: {}", fromEmail);
-        logger.info("To email: {}", toEmail);
-        
+    /** The welcome email, rendered but not sent; see {@link #sendWelcomeEmail}. */
+    public OutgoingEmail composeWelcomeEmail(String toEmail, String firstName) {
+        // Falls back to a neutral greeting rather than "Hi ," when we have no name on file.
+        return composeGreeting(toEmail, "Welcome to Rensights", "welcome", firstName);
+    }
+
+    /** The getting-started email, rendered but not sent; see {@link #sendGettingStartedEmail}. */
+    public OutgoingEmail composeGettingStartedEmail(String toEmail, String firstName) {
+        return composeGreeting(toEmail, "A quick introduction to Rensights", "getting-started", firstName);
+    }
+
+    /** The feedback check-in, rendered but not sent; see {@link #sendFeedbackEmail}. */
+    public OutgoingEmail composeFeedbackEmail(String toEmail, String firstName) {
+        return composeGreeting(toEmail, "How is Rensights working for you?", "feedback", firstName);
+    }
+
+    private OutgoingEmail composeGreeting(String toEmail, String subject, String template, String firstName) {
+        String greetingName = firstName != null && !firstName.isBlank() ? firstName.trim() : "there";
+        // The name is user-submitted; the template service escapes it as it lands in the markup.
+        String body = emailTemplateService.render(template, Map.of(
+            "first_name", greetingName
+        ));
+        return new OutgoingEmail(toEmail, subject, body, true, replyToEmail);
+    }
+
+    /**
+     * Send a batch of already-composed emails in one provider call (see
+     * {@link MicrosoftGraphEmailService#sendEmails}).
+     *
+     * @return per message, {@code null} if it was accepted or the reason it was not
+     */
+    public List<String> sendEmails(List<OutgoingEmail> emails) {
+        if (!emailEnabled) {
+            logger.warn("Email is disabled. Skipping batch of {} email(s)", emails.size());
+            return new ArrayList<>(Collections.nCopies(emails.size(), null));
+        }
+
+        if (!useGraphApi || graphEmailService == null) {
+            logger.error("Microsoft Graph API is not configured! Email batch cannot be sent.");
+            throw new RuntimeException("Microsoft Graph API is required for email sending.");
+        }
+
+        return graphEmailService.sendEmails(emails);
+    }
+
+    /** Queue a password reset code in the outbox; see {@link #queueVerificationCode}. */
+    public void queuePasswordResetCode(String toEmail, String code) {
         if (!emailEnabled) {
             // SECURITY FIX: Never log password reset codes
             logger.warn("Email is disabled. Password reset code for {}: [REDACTED]", toEmail);
             return;
         }
-        
-        String subject = "Rensights - Password Reset Code";
+
         String body = emailTemplateService.render("password-reset-code", Map.of(
             "CODE", code,
             "EXPIRY_MINUTES", String.valueOf(VerificationCodeService.CODE_EXPIRY_MINUTES)
         ));
+        queueCodeEmail(new OutgoingEmail(toEmail, "Rensights - Password Reset Code", body, true, null));
+        logger.info("Password reset email queued for: {}", toEmail);
+    }
 
-        // Use Microsoft Graph API (required - no SMTP fallback)
-        if (!useGraphApi || graphEmailService == null) {
-            logger.error("Microsoft Graph API is not configured! Password reset email cannot be sent.");
-            throw new RuntimeException("Microsoft Graph API is required for email sending. Please configure MICROSOFT_TENANT_ID, MICROSOFT_CLIENT_ID, and MICROSOFT_CLIENT_SECRET.");
-        }
-
-        try {
-            logger.info("Sending password reset email via Microsoft Graph API to: {}", toEmail);
-            graphEmailService.sendEmail(toEmail, subject, body, true);
-            logger.info("✅ Password reset email sent successfully via Microsoft Graph API to: {}", toEmail);
-        } catch (Exception e) {
-            logger.error("❌ Failed to send password reset email via Microsoft Graph API to: {}", toEmail, e);
-            throw new RuntimeException("Failed to send password reset email: " + e.getMessage(), e);
-        }
+    // A code is useless once it has expired, so the outbox stops retrying at the same moment.
+    private void queueCodeEmail(OutgoingEmail email) {
+        emailOutboxService.enqueue(email, EmailOutboxMessage.PRIORITY_CODE,
+            LocalDateTime.now().plusMinutes(VerificationCodeService.CODE_EXPIRY_MINUTES));
     }
     
     public void sendAnalysisRequestNotification(String adminEmail, String requestId, String userEmail, String propertyAddress) {
@@ -16,8 +16,12 @@ import java.util.concurrent.ConcurrentHashMap;
  * Loads the HTML email templates from {@code resources/templates/email} and fills in their
  * {@code {{VARIABLE}}} placeholders.
  *
- * <p>Templates are read once and cached: they ship inside the jar, so re-reading them per send
- * buys nothing. A missing template fails loudly at send time rather than mailing a broken body.
+ * <p>Templates are read and compiled once, then cached: they ship inside the jar, so re-reading
+ * them per send buys nothing, and rendering a compiled template is a single pass (see
+ * {@link CompiledEmailTemplate}). A missing template fails loudly at send time rather than mailing
+ * a broken body.
+ *
+ * <p>Values are HTML-escaped as they are substituted, so callers pass them raw.
  */
 @Service
 public class EmailTemplateService {
@@ -26,29 +30,23 @@ public class EmailTemplateService {
 
     private static final String TEMPLATE_PATH = "templates/email/%s.html";
 
-    private final Map<String, String> cache = new ConcurrentHashMap<>();
+    private final Map<String, CompiledEmailTemplate> cache = new ConcurrentHashMap<>();
 
     /**
      * The named template with its placeholders replaced.
      *
      * @param templateName file name without the extension, e.g. {@code "verification-code"}
-     * @param variables    placeholder name (without braces) to value, e.g. {@code CODE -> 478041}
+     * @param variables    placeholder name (without braces) to raw, unescaped value,
+     *                     e.g. {@code CODE -> 478041}
      */
     public String render(String templateName, Map<String, String> variables) {
-        String template = cache.computeIfAbsent(templateName, this::load);
-
-        String rendered = template;
-        for (Map.Entry<String, String> variable : variables.entrySet()) {
-            rendered = rendered.replace("{{" + variable.getKey() + "}}",
-                variable.getValue() == null ? "" : variable.getValue());
-        }
-        return rendered;
+        return cache.computeIfAbsent(templateName, this::load).render(variables);
     }
 
-    private String load(String templateName) {
+    private CompiledEmailTemplate load(String templateName) {
         String path = String.format(TEMPLATE_PATH, templateName);
         try (InputStream stream = new ClassPathResource(path).getInputStream()) {
-            return StreamUtils.copyToString(stream, StandardCharsets.UTF_8);
+            return CompiledEmailTemplate.compile(StreamUtils.copyToString(stream, StandardCharsets.UTF_8));
         } catch (IOException e) {
             logger.error("Email template not found on the classpath: {}", path, e);
             throw new IllegalStateException("Missing email template: " + path, e);
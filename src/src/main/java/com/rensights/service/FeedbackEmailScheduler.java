@@ -42,8 +42,11 @@ public class FeedbackEmailScheduler {
     @Value("${app.feedback-email.max-age-hours:480}")
     private long maxAgeHours;
 
-    /** Cap per run, so a backlog drains steadily instead of in one burst. */
-    @Value("${app.feedback-email.batch-size:50}")
+    /**
+     * Cap per run, so a backlog drains steadily instead of in one burst. The runner sends in
+     * parallel Graph batches, so a run of this size is a handful of round trips.
+     */
+    @Value("${app.feedback-email.batch-size:500}")
     private int batchSize;
 
     public FeedbackEmailScheduler(UserRepository userRepository, EmailService emailService,
@@ -74,6 +77,7 @@ public class FeedbackEmailScheduler {
 
         runner.run("Feedback email", due,
             userRepository::claimFeedbackEmail,
-            user -> emailService.sendFeedbackEmail(user.getEmail(), user.getFirstName()));
+            userRepository::releaseFeedbackEmail,
+            user -> emailService.composeFeedbackEmail(user.getEmail(), user.getFirstName()));
     }
 }
@@ -48,8 +48,11 @@ public class GettingStartedEmailScheduler {
     @Value("${app.getting-started-email.max-age-hours:96}")
     private long maxAgeHours;
 
-    /** Cap per run, so a backlog drains steadily instead of in one burst. */
-    @Value("${app.getting-started-email.batch-size:50}")
+    /**
+     * Cap per run, so a backlog drains steadily instead of in one burst. The runner sends in
+     * parallel Graph batches, so a run of this size is a handful of round trips.
+     */
+    @Value("${app.getting-started-email.batch-size:500}")
     private int batchSize;
 
     public GettingStartedEmailScheduler(UserRepository userRepository, EmailService emailService,
@@ -80,6 +83,7 @@ public class GettingStartedEmailScheduler {
 
         runner.run("Getting-started email", due,
             userRepository::claimGettingStartedEmail,
-            user -> emailService.sendGettingStartedEmail(user.getEmail(), user.getFirstName()));
+            userRepository::releaseGettingStartedEmail,
+            user -> emailService.composeGettingStartedEmail(user.getEmail(), user.getFirstName()));
     }
 }
@@ -2,35 +2,106 @@ package com.rensights.service;
 
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.googleapis.auth.oauth2.GoogleOAuthConstants;
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
 import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.gson.GsonFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.Collections;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * Verifies Google Sign-In ID tokens.
+ *
+ * <p>One verifier and one {@link GooglePublicKeysManager} live for the life of the app, so
+ * Google's signing keys are downloaded once and then checked in memory; a login costs no
+ * network call. The manager itself only refreshes lazily, inside a lock, once the keys are
+ * within five minutes of the expiry Google sets via {@code Cache-Control: max-age} - that
+ * would stall whichever login happened to trip it. A background thread therefore re-reads the
+ * keys {@code key-refresh-margin} before that point, keeping the hot path local.
+ *
+ * <p>The bean is {@code @Lazy}: it is created, and the first key download started, by the first
+ * Google sign-in rather than at startup.
+ *
+ * <p>{@code app.google.certs-url} points the verifier at a stand-in key endpoint for tests.
+ */
 @Service
+@Lazy
 public class GoogleTokenVerifierService {
 
     private static final Logger logger = LoggerFactory.getLogger(GoogleTokenVerifierService.class);
 
+    /** Retry delay after a failed key refresh; also the floor for any scheduled refresh. */
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(30);
+
     @Value("${app.google.client-id:}")
     private String clientId;
 
+    @Value("${app.google.certs-url:" + GoogleOAuthConstants.DEFAULT_PUBLIC_CERTS_ENCODED_URL + "}")
+    private String certsUrl;
+
+    /** How long before the keys' cache expiry the background refresh runs. */
+    @Value("${app.google.key-refresh-margin:10m}")
+    private Duration keyRefreshMargin;
+
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService refresher;
+    private GooglePublicKeysManager publicKeys;
+    private GoogleIdTokenVerifier verifier;
+
+    public GoogleTokenVerifierService(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("google-keys-refresh-"));
+    }
+
+    @PostConstruct
+    void init() {
+        if (!isConfigured()) {
+            return;
+        }
+        publicKeys = new GooglePublicKeysManager.Builder(new NetHttpTransport(), GsonFactory.getDefaultInstance())
+            .setPublicCertsEncodedUrl(certsUrl)
+            .build();
+        verifier = new GoogleIdTokenVerifier.Builder(publicKeys)
+            .setAudience(Collections.singletonList(clientId.trim()))
+            .build();
+
+        Gauge.builder("google_jwks.expires_in", publicKeys,
+                keys -> Math.max(0, keys.getExpirationTimeMilliseconds() - System.currentTimeMillis()) / 1000.0)
+            .description("Seconds until the cached Google signing keys expire")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+
+        // Load the keys before the first login needs them.
+        scheduleRefresh(Duration.ZERO);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
     public GoogleUserInfo verify(String credentialJwt) throws Exception {
-        if (clientId == null || clientId.isBlank()) {
+        if (verifier == null) {
             throw new IllegalStateException("Google Sign-In is not configured (missing GOOGLE_CLIENT_ID / app.google.client-id)");
         }
 
-        GoogleIdTokenVerifier verifier = new GoogleIdTokenVerifier.Builder(
-                new NetHttpTransport(),
-                GsonFactory.getDefaultInstance()
-        )
-                .setAudience(Collections.singletonList(clientId.trim()))
-                .build();
-
         GoogleIdToken idToken = verifier.verify(credentialJwt);
         if (idToken == null) {
             throw new SecurityException("Invalid Google ID token");
@@ -53,6 +124,39 @@ public class GoogleTokenVerifierService {
         return new GoogleUserInfo(email.trim().toLowerCase(), subject, givenName, familyName);
     }
 
+    private void refreshKeys() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        Duration next;
+        try {
+            publicKeys.refresh();
+            Duration ttl = Duration.ofMillis(publicKeys.getExpirationTimeMilliseconds() - System.currentTimeMillis());
+            next = ttl.minus(keyRefreshMargin);
+            logger.debug("Google signing keys refreshed: {} key(s), cacheable for {}s",
+                publicKeys.getPublicKeys().size(), ttl.toSeconds());
+        } catch (Exception e) {
+            outcome = "failure";
+            next = RETRY_DELAY;
+            // Logins keep using the keys already held; the manager fetches inline once they expire.
+            logger.warn("Google signing key refresh failed, retrying in {}s: {}", RETRY_DELAY.toSeconds(), e.getMessage());
+        } finally {
+            sample.stop(Timer.builder("google_jwks.refresh")
+                .description("Latency of refreshing Google's ID token signing keys")
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+        }
+        scheduleRefresh(next);
+    }
+
+    private void scheduleRefresh(Duration delay) {
+        long millis = delay.isZero() ? 0 : Math.max(delay.toMillis(), RETRY_DELAY.toMillis());
+        try {
+            refresher.schedule(this::refreshKeys, millis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down.
+        }
+    }
+
     public boolean isConfigured() {
         return clientId != null && !clientId.isBlank();
     }
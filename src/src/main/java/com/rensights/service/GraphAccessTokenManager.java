@@ -0,0 +1,200 @@
+package com.rensights.service;
+
+import com.azure.core.credential.AccessToken;
+import com.azure.core.credential.TokenRequestContext;
+import com.azure.identity.ClientSecretCredential;
+import com.azure.identity.ClientSecretCredentialBuilder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The app-only access token for Microsoft Graph, shared by every sender.
+ *
+ * <p>Graph asks its authentication provider for a token on every request. Going to Azure AD
+ * each time put an identity round trip (and a blocking {@code .block()}) in front of every
+ * email. Here the token is held until {@code refresh-before} its expiry and handed out from
+ * memory; one background thread replaces it ahead of time, so senders normally never wait.
+ *
+ * <p>If the proactive refresh fails, the current token keeps being served while it is still
+ * valid and the refresh is retried shortly. Only a caller that finds no usable token at all
+ * fetches inline, and concurrent callers in that position share the one fetch.
+ */
+@Component
+@Lazy
+public class GraphAccessTokenManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(GraphAccessTokenManager.class);
+
+    private static final TokenRequestContext GRAPH_SCOPE = new TokenRequestContext()
+        .addScopes("https://graph.microsoft.com/.default");
+
+    /** Delay before retrying a failed refresh; also the floor for any scheduled refresh. */
+    private static final Duration RETRY_DELAY = Duration.ofSeconds(30);
+
+    private final MeterRegistry meterRegistry;
+    private final ScheduledExecutorService refresher;
+    private final Counter hits;
+    private final Counter misses;
+
+    @Value("${microsoft.graph.tenant-id:}")
+    private String tenantId;
+
+    @Value("${microsoft.graph.client-id:}")
+    private String clientId;
+
+    @Value("${microsoft.graph.client-secret:}")
+    private String clientSecret;
+
+    /** A token this close to expiry is replaced rather than handed out. */
+    @Value("${microsoft.graph.token-refresh-before:5m}")
+    private Duration refreshBefore;
+
+    /**
+     * Guards the fetch and the fields below. A lock rather than {@code synchronized}: the fetch
+     * waits on Azure AD, and a virtual thread blocking inside a monitor pins its carrier thread.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+    private ClientSecretCredential credential;
+    private volatile AccessToken token;
+    private ScheduledFuture<?> scheduledRefresh;
+    private OffsetDateTime lastFailureAt;
+
+    public GraphAccessTokenManager(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.refresher = Executors.newSingleThreadScheduledExecutor(
+            new CustomizableThreadFactory("graph-token-refresh-"));
+        this.hits = Counter.builder("graph_token.requests").tag("result", "hit")
+            .description("Graph access token lookups").register(meterRegistry);
+        this.misses = Counter.builder("graph_token.requests").tag("result", "miss")
+            .description("Graph access token lookups").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /** A valid Graph access token, from memory unless there is none worth using. */
+    public String getToken() {
+        AccessToken current = token;
+        if (isFresh(current)) {
+            hits.increment();
+            return current.getToken();
+        }
+        misses.increment();
+        return refreshIfStale().getToken();
+    }
+
+    /** Callers that all found the token stale queue here; only the first one fetches. */
+    private AccessToken refreshIfStale() {
+        lock.lock();
+        try {
+            AccessToken current = token;
+            if (isFresh(current)) {
+                return current;
+            }
+            // Azure AD just failed us and the old token still works: don't hammer it from every send.
+            if (current != null && !current.isExpired() && lastFailureAt != null
+                    && lastFailureAt.plus(RETRY_DELAY).isAfter(OffsetDateTime.now())) {
+                return current;
+            }
+            return fetch("inline");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replace the token. On failure, keep serving the current one while it has not actually
+     * expired and try again after {@link #RETRY_DELAY}.
+     */
+    private AccessToken fetch(String trigger) {
+        lock.lock();
+        AccessToken current = token;
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
+        try {
+            AccessToken fetched = credential().getToken(GRAPH_SCOPE).block();
+            if (fetched == null) {
+                throw new IllegalStateException("Azure AD returned no access token");
+            }
+            token = fetched;
+            lastFailureAt = null;
+            // Renew a full refresh-before ahead of the point where senders would stop using it,
+            // so the swap normally happens without anyone waiting.
+            scheduleRefresh(Duration.between(OffsetDateTime.now(), fetched.getExpiresAt())
+                .minus(refreshBefore.multipliedBy(2)));
+            logger.debug("Graph access token refreshed ({}), expires at {}", trigger, fetched.getExpiresAt());
+            return fetched;
+        } catch (RuntimeException e) {
+            outcome = "failure";
+            lastFailureAt = OffsetDateTime.now();
+            scheduleRefresh(RETRY_DELAY);
+            if (current != null && !current.isExpired()) {
+                logger.warn("Graph access token refresh failed ({}), still using the current token: {}",
+                    trigger, e.getMessage());
+                return current;
+            }
+            logger.error("Failed to get Graph access token", e);
+            throw e;
+        } finally {
+            lock.unlock();
+            sample.stop(Timer.builder("graph_token.fetch")
+                .description("Latency of fetching a Graph access token from Azure AD")
+                .tag("trigger", trigger)
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+        }
+    }
+
+    private void scheduleRefresh(Duration delay) {
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        long millis = Math.max(delay.toMillis(), RETRY_DELAY.toMillis());
+        try {
+            scheduledRefresh = refresher.schedule(() -> {
+                try {
+                    fetch("background");
+                } catch (RuntimeException e) {
+                    // Logged in fetch(); a retry is already scheduled.
+                }
+            }, millis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // Shutting down.
+        }
+    }
+
+    private boolean isFresh(AccessToken candidate) {
+        return candidate != null
+            && candidate.getExpiresAt().minus(refreshBefore).isAfter(OffsetDateTime.now());
+    }
+
+    private ClientSecretCredential credential() {
+        if (credential == null) {
+            credential = new ClientSecretCredentialBuilder()
+                .tenantId(tenantId)
+                .clientId(clientId)
+                .clientSecret(clientSecret)
+                .build();
+        }
+        return credential;
+    }
+}
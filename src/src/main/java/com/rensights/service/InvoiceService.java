@@ -8,6 +8,7 @@ import com.stripe.exception.StripeException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,9 +16,12 @@ import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -32,6 +36,7 @@ public class InvoiceService {
     private UserRepository userRepository;
     
     @Autowired
+    @Lazy
     private StripeService stripeService;
     
     /**
@@ -59,25 +64,7 @@ public class InvoiceService {
             }
             
             // Create new invoice record
-            Invoice invoice = Invoice.builder()
-                    .user(user)
-                    .stripeInvoiceId(stripeInvoice.getId())
-                    .stripeCustomerId(stripeCustomerId)
-                    .stripeSubscriptionId(stripeService.extractInvoiceSubscriptionId(stripeInvoice))
-                    .amount(BigDecimal.valueOf(stripeInvoice.getAmountPaid()).divide(BigDecimal.valueOf(100))) // Convert cents to dollars
-                    .currency(stripeInvoice.getCurrency() != null ? stripeInvoice.getCurrency().toUpperCase() : "USD")
-                    .status(stripeInvoice.getStatus())
-                    .invoiceUrl(stripeInvoice.getHostedInvoiceUrl())
-                    .invoicePdf(stripeInvoice.getInvoicePdf())
-                    .invoiceNumber(stripeInvoice.getNumber())
-                    .description(stripeInvoice.getDescription())
-                    .invoiceDate(stripeInvoice.getCreated() != null ? 
-                            LocalDateTime.ofInstant(Instant.ofEpochSecond(stripeInvoice.getCreated()), ZoneId.systemDefault()) : null)
-                    .dueDate(stripeInvoice.getDueDate() != null ? 
-                            LocalDateTime.ofInstant(Instant.ofEpochSecond(stripeInvoice.getDueDate()), ZoneId.systemDefault()) : null)
-                    .paidAt(stripeInvoice.getStatusTransitions() != null && stripeInvoice.getStatusTransitions().getPaidAt() != null ?
-                            LocalDateTime.ofInstant(Instant.ofEpochSecond(stripeInvoice.getStatusTransitions().getPaidAt()), ZoneId.systemDefault()) : null)
-                    .build();
+            Invoice invoice = newInvoice(user, stripeInvoice);
             
             invoice = invoiceRepository.save(invoice);
             logger.info("Saved invoice {} for user {}", invoice.getId(), user.getId());
@@ -88,12 +75,43 @@ public class InvoiceService {
             throw new RuntimeException("Failed to process invoice", e);
         }
     }
+
+    private Invoice newInvoice(User user, com.stripe.model.Invoice stripeInvoice) {
+        String stripeCustomerId = stripeInvoice.getCustomer();
+        return Invoice.builder()
+                .user(user)
+                .stripeInvoiceId(stripeInvoice.getId())
+                .stripeCustomerId(stripeCustomerId)
+                .stripeSubscriptionId(stripeService.extractInvoiceSubscriptionId(stripeInvoice))
+                .amount(BigDecimal.valueOf(stripeInvoice.getAmountPaid()).divide(BigDecimal.valueOf(100))) // Convert cents to dollars
+                .currency(stripeInvoice.getCurrency() != null ? stripeInvoice.getCurrency().toUpperCase() : "USD")
+                .status(stripeInvoice.getStatus())
+                .invoiceUrl(stripeInvoice.getHostedInvoiceUrl())
+                .invoicePdf(stripeInvoice.getInvoicePdf())
+                .invoiceNumber(stripeInvoice.getNumber())
+                .description(stripeInvoice.getDescription())
+                .invoiceDate(stripeInvoice.getCreated() != null ? 
+                        LocalDateTime.ofInstant(Instant.ofEpochSecond(stripeInvoice.getCreated()), ZoneId.systemDefault()) : null)
+                .dueDate(stripeInvoice.getDueDate() != null ? 
+                        LocalDateTime.ofInstant(Instant.ofEpochSecond(stripeInvoice.getDueDate()), ZoneId.systemDefault()) : null)
+                .paidAt(stripeInvoice.getStatusTransitions() != null && stripeInvoice.getStatusTransitions().getPaidAt() != null ?
+                        LocalDateTime.ofInstant(Instant.ofEpochSecond(stripeInvoice.getStatusTransitions().getPaidAt()), ZoneId.systemDefault()) : null)
+                .build();
+    }
     
     /**
      * Update existing invoice from Stripe
      */
     @Transactional
     public Invoice updateInvoiceFromStripe(Invoice invoice, com.stripe.model.Invoice stripeInvoice) {
+        copyStripeFields(invoice, stripeInvoice);
+        invoice = invoiceRepository.save(invoice);
+        logger.info("Updated invoice {}", invoice.getId());
+        
+        return invoice;
+    }
+
+    private void copyStripeFields(Invoice invoice, com.stripe.model.Invoice stripeInvoice) {
         invoice.setAmount(BigDecimal.valueOf(stripeInvoice.getAmountPaid()).divide(BigDecimal.valueOf(100)));
         invoice.setCurrency(stripeInvoice.getCurrency() != null ? stripeInvoice.getCurrency().toUpperCase() : "USD");
         invoice.setStatus(stripeInvoice.getStatus());
@@ -107,15 +125,15 @@ public class InvoiceService {
                     Instant.ofEpochSecond(stripeInvoice.getStatusTransitions().getPaidAt()), 
                     ZoneId.systemDefault()));
         }
-        
-        invoice = invoiceRepository.save(invoice);
-        logger.info("Updated invoice {}", invoice.getId());
-        
-        return invoice;
     }
     
     /**
-     * Sync invoices from Stripe for a user
+     * Sync invoices from Stripe for a user.
+     *
+     * <p>Incremental: only invoices created since {@link InvoiceRepository#findSyncCursor} are
+     * fetched, so a customer with years of history costs one short Stripe page rather than the
+     * whole list. The rows for what comes back are resolved with one {@code IN} query and
+     * written with one batched {@code saveAll}, instead of a lookup and a save per invoice.
      */
     @Transactional
     public void syncInvoicesForUser(UUID userId) {
@@ -128,18 +146,34 @@ public class InvoiceService {
                 return;
             }
             
-            List<com.stripe.model.Invoice> stripeInvoices = stripeService.listCustomerInvoices(user.getStripeCustomerId());
+            LocalDateTime cursor = invoiceRepository.findSyncCursor(userId);
+            Long createdSince = cursor != null ? cursor.atZone(ZoneId.systemDefault()).toEpochSecond() : null;
+            List<com.stripe.model.Invoice> stripeInvoices =
+                    stripeService.listCustomerInvoices(user.getStripeCustomerId(), createdSince);
+            if (stripeInvoices.isEmpty()) {
+                logger.info("No new invoices for user {} since {}", userId, cursor);
+                return;
+            }
+            
+            Map<String, Invoice> existing = invoiceRepository.findByStripeInvoiceIdIn(
+                            stripeInvoices.stream().map(com.stripe.model.Invoice::getId).toList())
+                    .stream()
+                    .collect(Collectors.toMap(Invoice::getStripeInvoiceId, Function.identity()));
             
+            List<Invoice> toSave = new ArrayList<>(stripeInvoices.size());
             for (com.stripe.model.Invoice stripeInvoice : stripeInvoices) {
-                Optional<Invoice> existing = invoiceRepository.findByStripeInvoiceId(stripeInvoice.getId());
-                if (existing.isPresent()) {
-                    updateInvoiceFromStripe(existing.get(), stripeInvoice);
+                Invoice invoice = existing.get(stripeInvoice.getId());
+                if (invoice != null) {
+                    copyStripeFields(invoice, stripeInvoice);
                 } else {
-                    processStripeInvoice(stripeInvoice);
+                    invoice = newInvoice(user, stripeInvoice);
                 }
+                toSave.add(invoice);
             }
+            invoiceRepository.saveAll(toSave);
             
-            logger.info("Synced {} invoices for user {}", stripeInvoices.size(), userId);
+            logger.info("Synced {} invoices for user {} ({} new, since {})", stripeInvoices.size(), userId,
+                    stripeInvoices.size() - existing.size(), cursor != null ? cursor : "the beginning");
         } catch (StripeException e) {
             logger.error("Error syncing invoices for user {}: {}", userId, e.getMessage(), e);
             throw new RuntimeException("Failed to sync invoices", e);
@@ -78,6 +78,22 @@ public class JwtService {
         return UUID.fromString(claims.getSubject());
     }
     
+    /**
+     * Verified claims of a token, or null if the signature does not check out or it has expired.
+     * Lets a caller validate and read a token with a single parse.
+     */
+    public Claims parseClaims(String token) {
+        try {
+            return Jwts.parser()
+                .verifyWith(getSigningKey())
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+    
     public boolean validateToken(String token) {
         try {
             Jwts.parser()
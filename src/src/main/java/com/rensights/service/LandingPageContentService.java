@@ -3,6 +3,8 @@ package com.rensights.service;
 import com.rensights.dto.LandingPageSectionDTO;
 import com.rensights.model.LandingPageContent;
 import com.rensights.repository.LandingPageContentRepository;
+import com.rensights.util.CompressedJson;
+import com.rensights.util.JsonCompressor;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -19,6 +21,7 @@ import java.util.Map;
 public class LandingPageContentService {
 
     private final LandingPageContentRepository repository;
+    private final JsonCompressor jsonCompressor;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @Cacheable(cacheNames = "landingSection", key = "#section + ':' + #languageCode")
@@ -40,9 +43,10 @@ public class LandingPageContentService {
             .build();
     }
     
+    /** Every section as one ready-to-send JSON body (section name to LandingPageSectionDTO), cached compressed. */
     @Cacheable(cacheNames = "landingAll", key = "#languageCode")
     @Transactional(readOnly = true)
-    public Map<String, LandingPageSectionDTO> getAllSections(String languageCode) {
+    public CompressedJson getAllSections(String languageCode) {
         List<String> sections = List.of("hero", "why-invest", "solutions", "how-it-works", "pricing", "footer");
         Map<String, LandingPageSectionDTO> result = new HashMap<>();
         
@@ -50,7 +54,7 @@ public class LandingPageContentService {
             result.put(section, getSectionContent(section, languageCode));
         }
         
-        return result;
+        return jsonCompressor.compress(result);
     }
     
     private Object parseContentValue(String contentValue, String contentType) {
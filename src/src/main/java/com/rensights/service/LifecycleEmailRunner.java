@@ -1,13 +1,26 @@
 package com.rensights.service;
 
 import com.rensights.model.User;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * The one place the "exactly once per account" rule for lifecycle emails is implemented.
@@ -23,6 +36,17 @@ import java.util.UUID;
  * <p><b>A failed send is not retried.</b> The claim stands. Retrying would mean a second copy for
  * anyone whose message actually went out before the call failed, and for these emails a
  * duplicate is worse than a miss. Failures are logged at error level so a real outage shows up.
+ * The exception is a message Graph never accepted - throttled or refused by an open breaker - where
+ * no copy can exist: its claim is released and the next run picks the account up again.
+ *
+ * <p><b>Batched.</b> The due list is cut into chunks of up to
+ * {@link MicrosoftGraphEmailService#MAX_BATCH_SIZE}. Each chunk is claimed, composed and sent as
+ * one Graph {@code $batch} call, so a backlog drains at 20 messages per round trip instead of one.
+ * Every message leaves the same mailbox, which Graph limits to 4 requests at a time, so
+ * {@link MicrosoftGraphEmailService#sendEmails} sends one batch at a time anyway; more than the
+ * default {@code concurrency} of 1 only overlaps claiming and rendering with the send. A chunk
+ * claims its accounts only just before sending them, so a crash mid-run strands at most the
+ * chunks in flight.
  */
 @Component
 public class LifecycleEmailRunner {
@@ -35,35 +59,142 @@ public class LifecycleEmailRunner {
         int tryClaim(UUID userId, LocalDateTime at);
     }
 
-    /** Sends the message to one account, throwing if it could not be handed to the provider. */
+    /** Clears a stamp this runner won, for a message that was never sent. */
+    @FunctionalInterface
+    public interface Release {
+        int release(UUID userId);
+    }
+
+    /** Renders the message for one account; sending is left to the runner. */
     @FunctionalInterface
-    public interface Send {
-        void to(User user) throws Exception;
+    public interface Compose {
+        OutgoingEmail to(User user);
+    }
+
+    private final EmailService emailService;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor;
+    private final int chunkSize;
+
+    public LifecycleEmailRunner(EmailService emailService, MeterRegistry meterRegistry,
+                                @Value("${app.lifecycle-email.concurrency:1}") int concurrency,
+                                @Value("${app.lifecycle-email.graph-batch-size:20}") int chunkSize) {
+        this.emailService = emailService;
+        this.meterRegistry = meterRegistry;
+        this.executor = Executors.newFixedThreadPool(Math.max(1, concurrency),
+            new CustomizableThreadFactory("lifecycle-email-"));
+        this.chunkSize = Math.max(1, Math.min(chunkSize, MicrosoftGraphEmailService.MAX_BATCH_SIZE));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
     }
 
     /**
-     * Claim and send for every account in the batch.
+     * Claim and send for every account in the batch, returning once every chunk has finished.
      *
-     * @param label what to call this email in the logs, e.g. {@code "Welcome email"}
+     * @param label what to call this email in the logs and metrics, e.g. {@code "Welcome email"}
+     * @param release undoes {@code claim}, for messages Graph never accepted
      */
-    public void run(String label, List<User> due, Claim claim, Send send) {
+    public void run(String label, List<User> due, Claim claim, Release release, Compose compose) {
         if (due.isEmpty()) {
             return;
         }
 
         logger.info("{}: {} account(s) due", label, due.size());
-        for (User user : due) {
+        long startedAt = System.nanoTime();
+        AtomicInteger sent = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        AtomicInteger deferred = new AtomicInteger();
+
+        List<CompletableFuture<Void>> chunks = new ArrayList<>();
+        for (int from = 0; from < due.size(); from += chunkSize) {
+            List<User> chunk = due.subList(from, Math.min(from + chunkSize, due.size()));
+            chunks.add(CompletableFuture.runAsync(
+                () -> sendChunk(label, chunk, claim, release, compose, sent, failed, deferred), executor));
+        }
+        CompletableFuture.allOf(chunks.toArray(new CompletableFuture[0])).join();
+
+        long elapsedNanos = System.nanoTime() - startedAt;
+        Timer.builder("lifecycle_email.run")
+            .description("Wall time of one lifecycle email run")
+            .tag("email", label)
+            .register(meterRegistry)
+            .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        Counter.builder("lifecycle_email.sent").tag("email", label).register(meterRegistry).increment(sent.get());
+        Counter.builder("lifecycle_email.failed").tag("email", label).register(meterRegistry).increment(failed.get());
+        Counter.builder("lifecycle_email.deferred").tag("email", label).register(meterRegistry).increment(deferred.get());
+
+        double seconds = Math.max(elapsedNanos / 1e9, 0.001);
+        logger.info("{}: sent {}, failed {}, deferred {} in {} ms ({} msg/s)", label, sent.get(), failed.get(),
+            deferred.get(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos), String.format("%.1f", sent.get() / seconds));
+    }
+
+    private void sendChunk(String label, List<User> chunk, Claim claim, Release release, Compose compose,
+                           AtomicInteger sent, AtomicInteger failed, AtomicInteger deferred) {
+        List<User> claimed = new ArrayList<>(chunk.size());
+        List<OutgoingEmail> emails = new ArrayList<>(chunk.size());
+        for (User user : chunk) {
             if (claim.tryClaim(user.getId(), LocalDateTime.now()) == 0) {
                 // Someone else already has this account - never send a second copy.
                 continue;
             }
-
             try {
-                send.to(user);
+                emails.add(compose.to(user));
+                claimed.add(user);
             } catch (Exception e) {
+                failed.incrementAndGet();
+                logger.error("{} could not be rendered for user {} - not retried, claim stands: {}",
+                    label, user.getId(), e.getMessage());
+            }
+        }
+        if (emails.isEmpty()) {
+            return;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            List<String> failures = emailService.sendEmails(emails);
+            for (int i = 0; i < claimed.size(); i++) {
+                if (failures.get(i) == null) {
+                    sent.incrementAndGet();
+                } else if (MicrosoftGraphEmailService.wasNotAttempted(failures.get(i))) {
+                    defer(label, claimed.get(i), release, failures.get(i), deferred);
+                } else {
+                    failed.incrementAndGet();
+                    logger.error("{} failed for user {} - not retried, claim stands: {}",
+                        label, claimed.get(i).getId(), failures.get(i));
+                }
+            }
+        } catch (CallNotPermittedException e) {
+            for (User user : claimed) {
+                defer(label, user, release, "Graph breaker open", deferred);
+            }
+        } catch (Exception e) {
+            failed.addAndGet(claimed.size());
+            for (User user : claimed) {
                 logger.error("{} failed for user {} - not retried, claim stands: {}",
                     label, user.getId(), e.getMessage());
             }
+        } finally {
+            sample.stop(Timer.builder("lifecycle_email.batch")
+                .description("Latency of one Graph batch send")
+                .tag("email", label)
+                .register(meterRegistry));
+        }
+    }
+
+    /** Put back an account whose message Graph never took, so a later run sends it. */
+    private void defer(String label, User user, Release release, String reason, AtomicInteger deferred) {
+        try {
+            release.release(user.getId());
+            deferred.incrementAndGet();
+            logger.warn("{} for user {} not sent ({}) - claim released, next run sends it",
+                label, user.getId(), reason);
+        } catch (Exception e) {
+            logger.error("{} for user {} not sent ({}) and its claim could not be released: {}",
+                label, user.getId(), reason, e.getMessage());
         }
     }
 }
@@ -7,22 +7,32 @@ import com.microsoft.graph.models.Recipient;
 import com.microsoft.graph.models.EmailAddress;
 import com.microsoft.graph.requests.GraphServiceClient;
 import com.microsoft.graph.authentication.IAuthenticationProvider;
-import com.azure.identity.ClientSecretCredential;
-import com.azure.identity.ClientSecretCredentialBuilder;
-import com.azure.core.credential.TokenRequestContext;
+import com.microsoft.graph.content.BatchRequestContent;
+import com.microsoft.graph.content.BatchResponseContent;
+import com.microsoft.graph.content.BatchResponseStep;
+import com.microsoft.graph.http.GraphServiceException;
+import com.microsoft.graph.http.HttpMethod;
+import com.microsoft.graph.models.UserSendMailParameterSet;
+import com.microsoft.graph.requests.UserSendMailRequest;
+import com.google.gson.JsonElement;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
-import java.net.URL;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
 
 @Service
+@Lazy
 public class MicrosoftGraphEmailService {
     
     private static final Logger logger = LoggerFactory.getLogger(MicrosoftGraphEmailService.class);
@@ -41,8 +51,41 @@ public class MicrosoftGraphEmailService {
     
     @Value("${app.email.enabled:true}")
     private boolean emailEnabled;
+
+    /**
+     * Graph endpoint root. Empty means the SDK default ({@code https://graph.microsoft.com/v1.0});
+     * point it at a local stand-in to exercise sending without touching a real mailbox.
+     */
+    @Value("${microsoft.graph.service-root:}")
+    private String serviceRoot;
+
+    /** Graph accepts at most 20 requests in one JSON batch. */
+    public static final int MAX_BATCH_SIZE = 20;
+
+    /**
+     * Graph runs at most 4 requests against one mailbox at a time and answers the rest with 429.
+     * Every message goes out of the same mailbox, so a batch's steps are chained into this many
+     * {@code dependsOn} lanes and only one batch is in flight at a time.
+     */
+    private static final int MAILBOX_CONCURRENCY = 4;
+
+    /** Prefix of the failure reason for a step Graph did not accept and never ran; see {@link #wasNotAttempted}. */
+    private static final String NOT_ATTEMPTED = "not attempted: ";
+
+    /** Rounds of resending throttled steps within one {@link #sendEmails} call. */
+    private static final int MAX_THROTTLE_RETRIES = 2;
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofSeconds(2);
+    private static final Duration MAX_RETRY_AFTER = Duration.ofSeconds(10);
+
+    private final Semaphore mailbox = new Semaphore(1, true);
     
     private GraphServiceClient<?> graphClient;
+
+    private final GraphAccessTokenManager tokenManager;
+
+    public MicrosoftGraphEmailService(GraphAccessTokenManager tokenManager) {
+        this.tokenManager = tokenManager;
+    }
     
     /**
      * Initialize Microsoft Graph client with client credentials
@@ -50,31 +93,21 @@ public class MicrosoftGraphEmailService {
     private GraphServiceClient<?> getGraphClient() {
         if (graphClient == null) {
             try {
-                ClientSecretCredential credential = new ClientSecretCredentialBuilder()
-                    .tenantId(tenantId)
-                    .clientId(clientId)
-                    .clientSecret(clientSecret)
-                    .build();
-                
-                // Create custom authentication provider
-                IAuthenticationProvider authProvider = new IAuthenticationProvider() {
-                    @Override
-                    public CompletableFuture<String> getAuthorizationTokenAsync(URL requestUrl) {
-                        try {
-                            TokenRequestContext tokenRequestContext = new TokenRequestContext()
-                                .addScopes("https://graph.microsoft.com/.default");
-                            String accessToken = credential.getToken(tokenRequestContext).block().getToken();
-                            return CompletableFuture.completedFuture(accessToken);
-                        } catch (Exception e) {
-                            logger.error("Failed to get access token", e);
-                            return CompletableFuture.failedFuture(e);
-                        }
+                // Tokens come from the shared manager's cache; Azure AD is not called per request.
+                IAuthenticationProvider authProvider = requestUrl -> {
+                    try {
+                        return CompletableFuture.completedFuture(tokenManager.getToken());
+                    } catch (Exception e) {
+                        return CompletableFuture.failedFuture(e);
                     }
                 };
                 
                 graphClient = GraphServiceClient.builder()
                     .authenticationProvider(authProvider)
                     .buildClient();
+                if (serviceRoot != null && !serviceRoot.isBlank()) {
+                    graphClient.setServiceRoot(serviceRoot.trim());
+                }
                 
                 logger.info("Microsoft Graph client initialized successfully");
             } catch (Exception e) {
@@ -118,61 +151,15 @@ public class MicrosoftGraphEmailService {
             return;
         }
         
-        if (tenantId == null || tenantId.isEmpty() || 
-            clientId == null || clientId.isEmpty() || 
-            clientSecret == null || clientSecret.isEmpty()) {
-            logger.error("Microsoft Graph credentials are not configured! Tenant: {}, Client ID: {}, Secret: {}", 
-                        tenantId != null && !tenantId.isEmpty() ? "SET" : "MISSING",
-                        clientId != null && !clientId.isEmpty() ? "SET" : "MISSING",
-                        clientSecret != null && !clientSecret.isEmpty() ? "SET" : "MISSING");
-            throw new RuntimeException("Microsoft Graph credentials are not configured. Please set MICROSOFT_TENANT_ID, MICROSOFT_CLIENT_ID, and MICROSOFT_CLIENT_SECRET environment variables.");
-        }
+        requireCredentials();
         
         try {
             GraphServiceClient<?> client = getGraphClient();
             
-            // Create message
-            Message message = new Message();
-            message.subject = subject;
-            
-            // Set body
-            ItemBody itemBody = new ItemBody();
-            itemBody.contentType = isHtml ? BodyType.HTML : BodyType.TEXT;
-            itemBody.content = body;
-            message.body = itemBody;
-            
-            // Set recipients
-            List<Recipient> toRecipients = new LinkedList<>();
-            Recipient recipient = new Recipient();
-            EmailAddress emailAddress = new EmailAddress();
-            emailAddress.address = toEmail;
-            recipient.emailAddress = emailAddress;
-            toRecipients.add(recipient);
-            message.toRecipients = toRecipients;
-
-            if (replyToEmail != null && !replyToEmail.isBlank()) {
-                List<Recipient> replyTo = new LinkedList<>();
-                Recipient replyRecipient = new Recipient();
-                EmailAddress replyAddress = new EmailAddress();
-                replyAddress.address = replyToEmail;
-                replyRecipient.emailAddress = replyAddress;
-                replyTo.add(replyRecipient);
-                message.replyTo = replyTo;
-            }
-
-            // Send email from the specified mailbox
-            // Format: users/{email} or users/{userId}
-            String userPrincipalName = fromEmail;
-            if (!userPrincipalName.contains("@")) {
-                userPrincipalName = fromEmail + "@rensights.com";
-            }
-            
             logger.info("Sending email via Microsoft Graph from {} to {}", fromEmail, toEmail);
             
-            client.users(userPrincipalName)
-                .sendMail(com.microsoft.graph.models.UserSendMailParameterSet.newBuilder()
-                    .withMessage(message)
-                    .build())
+            client.users(senderPrincipalName())
+                .sendMail(sendMailParameters(new OutgoingEmail(toEmail, subject, body, isHtml, replyToEmail)))
                 .buildRequest()
                 .post();
             
@@ -183,6 +170,210 @@ public class MicrosoftGraphEmailService {
         }
     }
 
+    /**
+     * Send several emails in one Graph JSON batch ({@code POST /$batch}) instead of one
+     * {@code sendMail} round trip each.
+     *
+     * <p>Graph answers a batch with a status per step, so one bad address does not fail the rest.
+     * The result lines up with {@code emails}: {@code null} where the message was accepted, the
+     * failure reason where it was not. If the batch call itself fails (network, auth, open
+     * breaker) this throws and nothing in the batch should be treated as sent.
+     *
+     * <p>Steps Graph throttled (429), was too busy for (503) or skipped because an earlier step in
+     * their lane failed (424) were never accepted, so they are sent again after the
+     * {@code Retry-After} Graph asked for, a couple of times. Any still left over come back with a
+     * reason {@link #wasNotAttempted} recognises: the caller can safely try them again later.
+     *
+     * <p>No fallback on the breaker here, unlike the single-message overloads: a caller sending
+     * in bulk needs to know the batch did not go out, not have it logged and swallowed.
+     *
+     * @param emails at most {@link #MAX_BATCH_SIZE} messages
+     */
+    @CircuitBreaker(name = "microsoft-graph")
+    public List<String> sendEmails(List<OutgoingEmail> emails) {
+        if (emails.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Graph batches hold at most " + MAX_BATCH_SIZE + " requests");
+        }
+        List<String> failures = new ArrayList<>(Collections.nCopies(emails.size(), null));
+        if (emails.isEmpty()) {
+            return failures;
+        }
+        if (!emailEnabled) {
+            logger.warn("Email is disabled. Skipping batch of {} email(s)", emails.size());
+            return failures;
+        }
+        requireCredentials();
+
+        List<Integer> pending = new ArrayList<>(emails.size());
+        for (int i = 0; i < emails.size(); i++) {
+            pending.add(i);
+        }
+        for (int round = 0; ; round++) {
+            Duration retryAfter = postBatch(emails, pending, failures);
+            pending = pending.stream().filter(i -> wasNotAttempted(failures.get(i))).toList();
+            if (pending.isEmpty() || round == MAX_THROTTLE_RETRIES) {
+                break;
+            }
+            logger.warn("Graph did not take {} of {} email(s), sending them again in {} ms",
+                    pending.size(), emails.size(), retryAfter.toMillis());
+            try {
+                Thread.sleep(retryAfter.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        logger.info("Sent batch of {} email(s) via Microsoft Graph, {} rejected", emails.size(),
+                failures.stream().filter(f -> f != null).count());
+        return failures;
+    }
+
+    /**
+     * Whether a {@link #sendEmails} failure is one Graph never accepted (throttled, busy), as
+     * opposed to one it rejected or one whose outcome is unknown.
+     */
+    public static boolean wasNotAttempted(String failure) {
+        return failure != null && failure.startsWith(NOT_ATTEMPTED);
+    }
+
+    /**
+     * One {@code $batch} call for the messages at {@code indexes}, recording each one's outcome in
+     * {@code failures}.
+     *
+     * @return how long Graph asked to wait before the throttled steps are sent again
+     */
+    private Duration postBatch(List<OutgoingEmail> emails, List<Integer> indexes, List<String> failures) {
+        GraphServiceClient<?> client = getGraphClient();
+        String sender = senderPrincipalName();
+        BatchRequestContent batch = new BatchRequestContent();
+        List<String> stepIds = new ArrayList<>(indexes.size());
+        for (int k = 0; k < indexes.size(); k++) {
+            UserSendMailParameterSet parameters = sendMailParameters(emails.get(indexes.get(k)));
+            UserSendMailRequest request = client.users(sender).sendMail(parameters).buildRequest();
+            stepIds.add(k < MAILBOX_CONCURRENCY
+                    ? batch.addBatchRequestStep(request, HttpMethod.POST, parameters)
+                    : batch.addBatchRequestStep(request, HttpMethod.POST, parameters,
+                        stepIds.get(k - MAILBOX_CONCURRENCY)));
+        }
+
+        BatchResponseContent response;
+        mailbox.acquireUninterruptibly();
+        try {
+            response = client.batch().buildRequest().post(batch);
+        } catch (GraphServiceException e) {
+            // The whole batch was turned away (the SDK has already retried it), so no step ran.
+            if (e.getResponseCode() != 429 && e.getResponseCode() != 503) {
+                throw e;
+            }
+            for (int index : indexes) {
+                failures.set(index, NOT_ATTEMPTED + "Graph returned " + e.getResponseCode() + " for the batch");
+            }
+            return DEFAULT_RETRY_AFTER;
+        } finally {
+            mailbox.release();
+        }
+
+        Duration retryAfter = Duration.ZERO;
+        for (int k = 0; k < indexes.size(); k++) {
+            BatchResponseStep<JsonElement> step = response == null ? null : response.getResponseById(stepIds.get(k));
+            String failure = null;
+            if (step == null) {
+                failure = "no response for batch step";
+            } else if (step.status == 424 || step.status == 429 || step.status == 503) {
+                failure = NOT_ATTEMPTED + "Graph returned " + step.status;
+                Duration wait = retryAfter(step);
+                if (wait.compareTo(retryAfter) > 0) {
+                    retryAfter = wait;
+                }
+            } else if (step.status < 200 || step.status >= 300) {
+                failure = "Graph returned " + step.status + (step.body != null ? ": " + step.body : "");
+            }
+            failures.set(indexes.get(k), failure);
+        }
+        return retryAfter;
+    }
+
+    /**
+     * How long Graph asked a step to wait ({@code Retry-After}, in seconds), capped. A 424 was
+     * only held up by another step in its lane and needs no wait of its own.
+     */
+    private static Duration retryAfter(BatchResponseStep<JsonElement> step) {
+        if (step.status == 424) {
+            return Duration.ZERO;
+        }
+        if (step.headers != null) {
+            for (Map.Entry<String, String> header : step.headers.entrySet()) {
+                if ("Retry-After".equalsIgnoreCase(header.getKey())) {
+                    try {
+                        Duration wait = Duration.ofSeconds(Long.parseLong(header.getValue().trim()));
+                        return wait.compareTo(MAX_RETRY_AFTER) > 0 ? MAX_RETRY_AFTER : wait;
+                    } catch (NumberFormatException e) {
+                        break;
+                    }
+                }
+            }
+        }
+        return DEFAULT_RETRY_AFTER;
+    }
+
+    private void requireCredentials() {
+        if (tenantId == null || tenantId.isEmpty() || 
+            clientId == null || clientId.isEmpty() || 
+            clientSecret == null || clientSecret.isEmpty()) {
+            logger.error("Microsoft Graph credentials are not configured! Tenant: {}, Client ID: {}, Secret: {}", 
+                        tenantId != null && !tenantId.isEmpty() ? "SET" : "MISSING",
+                        clientId != null && !clientId.isEmpty() ? "SET" : "MISSING",
+                        clientSecret != null && !clientSecret.isEmpty() ? "SET" : "MISSING");
+            throw new RuntimeException("Microsoft Graph credentials are not configured. Please set MICROSOFT_TENANT_ID, MICROSOFT_CLIENT_ID, and MICROSOFT_CLIENT_SECRET environment variables.");
+        }
+    }
+
+    // Send email from the specified mailbox
+    // Format: users/{email} or users/{userId}
+    private String senderPrincipalName() {
+        String userPrincipalName = fromEmail;
+        if (!userPrincipalName.contains("@")) {
+            userPrincipalName = fromEmail + "@rensights.com";
+        }
+        return userPrincipalName;
+    }
+
+    private UserSendMailParameterSet sendMailParameters(OutgoingEmail email) {
+        // Create message
+        Message message = new Message();
+        message.subject = email.subject();
+        
+        // Set body
+        ItemBody itemBody = new ItemBody();
+        itemBody.contentType = email.isHtml() ? BodyType.HTML : BodyType.TEXT;
+        itemBody.content = email.body();
+        message.body = itemBody;
+        
+        // Set recipients
+        List<Recipient> toRecipients = new LinkedList<>();
+        Recipient recipient = new Recipient();
+        EmailAddress emailAddress = new EmailAddress();
+        emailAddress.address = email.toEmail();
+        recipient.emailAddress = emailAddress;
+        toRecipients.add(recipient);
+        message.toRecipients = toRecipients;
+
+        String replyToEmail = email.replyToEmail();
+        if (replyToEmail != null && !replyToEmail.isBlank()) {
+            List<Recipient> replyTo = new LinkedList<>();
+            Recipient replyRecipient = new Recipient();
+            EmailAddress replyAddress = new EmailAddress();
+            replyAddress.address = replyToEmail;
+            replyRecipient.emailAddress = replyAddress;
+            replyTo.add(replyRecipient);
+            message.replyTo = replyTo;
+        }
+
+        return UserSendMailParameterSet.newBuilder()
+            .withMessage(message)
+            .build();
+    }
+
     // Fallback for sendEmail(String toEmail, String subject, String body)
     private void sendEmailFallback(String toEmail, String subject, String body, Exception ex) {
         logger.error("Microsoft Graph circuit breaker open - email to {} with subject '{}' could not be sent: {}",
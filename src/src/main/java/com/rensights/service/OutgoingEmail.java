@@ -0,0 +1,13 @@
+package com.rensights.service;
+
+/**
+ * A fully rendered email, ready to hand to the provider.
+ *
+ * <p>Composing and sending are separate steps so a caller with many messages (the lifecycle
+ * emails) can render them all and then send them together, see
+ * {@link MicrosoftGraphEmailService#sendEmails}.
+ *
+ * @param replyToEmail null or blank to leave the Reply-To header off
+ */
+public record OutgoingEmail(String toEmail, String subject, String body, boolean isHtml, String replyToEmail) {
+}
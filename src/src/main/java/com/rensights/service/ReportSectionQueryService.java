@@ -2,6 +2,7 @@ package com.rensights.service;
 
 import com.rensights.dto.ReportDocumentDTO;
 import com.rensights.dto.ReportSectionDTO;
+import com.rensights.model.ReportDocument;
 import com.rensights.model.ReportSection;
 import com.rensights.model.UserTier;
 import com.rensights.repository.ReportDocumentRepository;
@@ -12,6 +13,8 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
@@ -58,23 +61,35 @@ public class ReportSectionQueryService {
                 .findByLanguageCodeAndIsActiveTrueOrderByDisplayOrderAsc("en");
         }
 
-        return sections.stream()
-            // Enterprise sections stay fully hidden until the caller is Enterprise —
-            // not even a locked stub. Premium sections are still returned (stubbed) so
-            // lower tiers see the upgrade shadow.
+        // Enterprise sections stay fully hidden until the caller is Enterprise —
+        // not even a locked stub. Premium sections are still returned (stubbed) so
+        // lower tiers see the upgrade shadow.
+        List<ReportSection> visible = sections.stream()
             .filter(section -> section.getAccessTier() != UserTier.ENTERPRISE
                 || tier == UserTier.ENTERPRISE)
-            .map(section -> toSectionDTO(section, allowed.contains(section.getAccessTier())))
+            .collect(Collectors.toList());
+
+        // Documents of every unlocked section in one query, rather than one per section.
+        List<UUID> unlockedIds = visible.stream()
+            .filter(section -> allowed.contains(section.getAccessTier()))
+            .map(ReportSection::getId)
+            .collect(Collectors.toList());
+        Map<UUID, List<ReportDocument>> documentsBySection = unlockedIds.isEmpty()
+            ? Map.of()
+            : documentRepository.findBySectionIdInAndIsActiveTrueOrderByDisplayOrderAsc(unlockedIds).stream()
+                .collect(Collectors.groupingBy(doc -> doc.getSection().getId()));
+
+        return visible.stream()
+            .map(section -> toSectionDTO(section, allowed.contains(section.getAccessTier()),
+                documentsBySection.getOrDefault(section.getId(), List.of())))
             .collect(Collectors.toList());
     }
 
-    private ReportSectionDTO toSectionDTO(ReportSection section, boolean unlocked) {
+    private ReportSectionDTO toSectionDTO(ReportSection section, boolean unlocked, List<ReportDocument> documents) {
         // Locked sections expose no documents at all: no file ids/urls reach the client,
         // so the ungated /documents/{id}/file endpoint can't be hit for premium content.
         List<ReportDocumentDTO> docs = unlocked
-            ? documentRepository
-                .findBySectionIdAndIsActiveTrueOrderByDisplayOrderAsc(section.getId())
-                .stream()
+            ? documents.stream()
                 .map(doc -> ReportDocumentDTO.builder()
                     .id(doc.getId().toString())
                     .title(doc.getTitle())
@@ -0,0 +1,139 @@
+package com.rensights.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.stripe.model.Customer;
+import com.stripe.model.Invoice;
+import com.stripe.model.StripeObject;
+import com.stripe.model.Subscription;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Recently seen Stripe subscriptions, invoices and customers, so we stop asking Stripe for
+ * objects it has just sent us.
+ *
+ * <p>Fed from two directions: every webhook event's payload (StripeWebhookProcessor) and every
+ * object StripeService gets back from the API. {@link StripeService} looks here before each
+ * retrieve.
+ *
+ * <p><b>Versioned.</b> Each entry carries the time it was true at: the event's {@code created}
+ * for webhook payloads, the fetch time for API responses. A write only lands if it is at least
+ * as new as what is cached, so a late or retried webhook can never roll an object back over a
+ * fresher API read, and vice versa. Entries also expire after {@code app.stripe-cache.ttl} as a
+ * backstop for a missed webhook.
+ */
+@Component
+public class StripeObjectCache {
+
+    private record Versioned<T>(T object, long version) {
+    }
+
+    private final Cache<String, Versioned<Subscription>> subscriptions;
+    private final Cache<String, Versioned<Invoice>> invoices;
+    private final Cache<String, Versioned<Customer>> customers;
+    /** Lower-cased email to customer id, for the find-by-email lookup at checkout. */
+    private final Cache<String, String> customerIdsByEmail;
+
+    public StripeObjectCache(MeterRegistry meterRegistry,
+                             @Value("${app.stripe-cache.ttl:10m}") Duration ttl,
+                             @Value("${app.stripe-cache.max-size:10000}") long maxSize) {
+        this.subscriptions = build(ttl, maxSize);
+        this.invoices = build(ttl, maxSize);
+        this.customers = build(ttl, maxSize);
+        this.customerIdsByEmail = build(ttl, maxSize);
+        CaffeineCacheMetrics.monitor(meterRegistry, subscriptions, "stripeSubscriptions");
+        CaffeineCacheMetrics.monitor(meterRegistry, invoices, "stripeInvoices");
+        CaffeineCacheMetrics.monitor(meterRegistry, customers, "stripeCustomers");
+        CaffeineCacheMetrics.monitor(meterRegistry, customerIdsByEmail, "stripeCustomerIdsByEmail");
+    }
+
+    private static <V> Cache<String, V> build(Duration ttl, long maxSize) {
+        return Caffeine.newBuilder()
+            .expireAfterWrite(ttl)
+            .maximumSize(maxSize)
+            .recordStats()
+            .build();
+    }
+
+    /** Version for an object just returned by the API. */
+    public static long now() {
+        return Instant.now().getEpochSecond();
+    }
+
+    public Optional<Subscription> subscription(String id) {
+        return get(subscriptions, id);
+    }
+
+    public Optional<Invoice> invoice(String id) {
+        return get(invoices, id);
+    }
+
+    public Optional<Customer> customer(String id) {
+        return get(customers, id);
+    }
+
+    public Optional<Customer> customerByEmail(String email) {
+        if (email == null) {
+            return Optional.empty();
+        }
+        String id = customerIdsByEmail.getIfPresent(email.trim().toLowerCase(Locale.ROOT));
+        return id == null ? Optional.empty() : customer(id);
+    }
+
+    /**
+     * Cache any object we keep, ignoring the rest (checkout sessions, payment intents, ...).
+     *
+     * @param version epoch seconds the object was current at
+     */
+    public void record(StripeObject object, long version) {
+        if (object instanceof Subscription subscription) {
+            put(subscriptions, subscription.getId(), subscription, version);
+        } else if (object instanceof Invoice invoice) {
+            put(invoices, invoice.getId(), invoice, version);
+        } else if (object instanceof Customer customer) {
+            if (Boolean.TRUE.equals(customer.getDeleted())) {
+                evictCustomer(customer.getId());
+                return;
+            }
+            if (put(customers, customer.getId(), customer, version) && customer.getEmail() != null) {
+                customerIdsByEmail.put(customer.getEmail().trim().toLowerCase(Locale.ROOT), customer.getId());
+            }
+        }
+    }
+
+    public void evictCustomer(String id) {
+        if (id == null) {
+            return;
+        }
+        Versioned<Customer> removed = customers.asMap().remove(id);
+        if (removed != null && removed.object().getEmail() != null) {
+            customerIdsByEmail.asMap().remove(removed.object().getEmail().trim().toLowerCase(Locale.ROOT), id);
+        }
+    }
+
+    private static <T> Optional<T> get(Cache<String, Versioned<T>> cache, String id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        Versioned<T> entry = cache.getIfPresent(id);
+        return entry == null ? Optional.empty() : Optional.of(entry.object());
+    }
+
+    /** @return true if the object is now the cached one */
+    private static <T> boolean put(Cache<String, Versioned<T>> cache, String id, T object, long version) {
+        if (id == null) {
+            return false;
+        }
+        Versioned<T> candidate = new Versioned<>(object, version);
+        return cache.asMap().merge(id, candidate,
+            (current, incoming) -> incoming.version() >= current.version() ? incoming : current) == candidate;
+    }
+}
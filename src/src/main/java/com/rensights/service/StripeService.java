@@ -10,6 +10,7 @@ import com.stripe.model.checkout.Session;
 import com.stripe.param.CustomerListParams;
 import com.stripe.param.checkout.SessionCreateParams;
 import com.stripe.param.CustomerCreateParams;
+import com.stripe.param.InvoiceListParams;
 import com.stripe.param.PaymentIntentCreateParams;
 import com.stripe.param.PaymentMethodAttachParams;
 import com.stripe.param.SubscriptionCreateParams;
@@ -17,14 +18,17 @@ import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
 @Service
+@Lazy
 public class StripeService {
 
     private static final Logger logger = LoggerFactory.getLogger(StripeService.class);
@@ -32,6 +36,12 @@ public class StripeService {
     @Value("${stripe.secret-key:}")
     private String stripeSecretKey;
 
+    private final StripeObjectCache objectCache;
+
+    public StripeService(StripeObjectCache objectCache) {
+        this.objectCache = objectCache;
+    }
+
     @PostConstruct
     public void init() {
         if (stripeSecretKey != null && !stripeSecretKey.isEmpty()) {
@@ -55,6 +65,7 @@ public class StripeService {
                 .build();
 
         Customer customer = Customer.create(params);
+        objectCache.record(customer, StripeObjectCache.now());
 
         logger.info("Created Stripe customer {} - Stripe will automatically send invoice emails to: {}",
                    customer.getId(), email);
@@ -71,6 +82,12 @@ public class StripeService {
      */
     @CircuitBreaker(name = "stripe", fallbackMethod = "stripeFallback")
     public Customer findOrCreateCustomerByEmail(String email, String name) throws StripeException {
+        Customer cached = objectCache.customerByEmail(email).orElse(null);
+        if (cached != null) {
+            logger.info("Reusing cached Stripe customer {} for email {}", cached.getId(), email);
+            return cached;
+        }
+
         CustomerListParams listParams = CustomerListParams.builder()
                 .setEmail(email)
                 .setLimit(1L)
@@ -79,6 +96,7 @@ public class StripeService {
         List<Customer> existingCustomers = Customer.list(listParams).getData();
         if (!existingCustomers.isEmpty()) {
             Customer existingCustomer = existingCustomers.get(0);
+            objectCache.record(existingCustomer, StripeObjectCache.now());
             logger.info("Reusing existing Stripe customer {} for email {}", existingCustomer.getId(), email);
             return existingCustomer;
         }
@@ -87,11 +105,18 @@ public class StripeService {
     }
 
     /**
-     * Get invoice by ID.
+     * Get invoice by ID, from {@link StripeObjectCache} when a webhook or an earlier call has
+     * already brought it in.
      */
     @CircuitBreaker(name = "stripe", fallbackMethod = "getInvoiceFallback")
     public com.stripe.model.Invoice getInvoice(String invoiceId) throws StripeException {
-        return com.stripe.model.Invoice.retrieve(invoiceId);
+        com.stripe.model.Invoice cached = objectCache.invoice(invoiceId).orElse(null);
+        if (cached != null) {
+            return cached;
+        }
+        com.stripe.model.Invoice invoice = com.stripe.model.Invoice.retrieve(invoiceId);
+        objectCache.record(invoice, StripeObjectCache.now());
+        return invoice;
     }
 
     private com.stripe.model.Invoice getInvoiceFallback(String invoiceId, Exception ex) {
@@ -139,19 +164,30 @@ public class StripeService {
     }
 
     /**
-     * List invoices for a customer.
+     * List a customer's invoices created at or after {@code createdSince} (epoch seconds), or all
+     * of them when it is null. Follows Stripe's pagination, so a long history is not cut off at
+     * the first 100.
      */
     @CircuitBreaker(name = "stripe", fallbackMethod = "listCustomerInvoicesFallback")
-    public List<com.stripe.model.Invoice> listCustomerInvoices(String customerId) throws StripeException {
-        Map<String, Object> params = new HashMap<>();
-        params.put("customer", customerId);
-        params.put("limit", 100);
+    public List<com.stripe.model.Invoice> listCustomerInvoices(String customerId, Long createdSince) throws StripeException {
+        InvoiceListParams.Builder params = InvoiceListParams.builder()
+                .setCustomer(customerId)
+                .setLimit(100L);
+        if (createdSince != null) {
+            params.setCreated(InvoiceListParams.Created.builder().setGte(createdSince).build());
+        }
 
-        com.stripe.model.InvoiceCollection invoices = com.stripe.model.Invoice.list(params);
-        return invoices.getData();
+        List<com.stripe.model.Invoice> invoices = new ArrayList<>();
+        // Pages are fetched lazily, so drain them here while the breaker is watching.
+        long version = StripeObjectCache.now();
+        for (com.stripe.model.Invoice invoice : com.stripe.model.Invoice.list(params.build()).autoPagingIterable()) {
+            objectCache.record(invoice, version);
+            invoices.add(invoice);
+        }
+        return invoices;
     }
 
-    private List<com.stripe.model.Invoice> listCustomerInvoicesFallback(String customerId, Exception ex) {
+    private List<com.stripe.model.Invoice> listCustomerInvoicesFallback(String customerId, Long createdSince, Exception ex) {
         throw new RuntimeException("Stripe service temporarily unavailable. Please try again later.", ex);
     }
 
@@ -197,6 +233,7 @@ public class StripeService {
                 .build();
 
         Subscription subscription = Subscription.create(subscriptionParams);
+        objectCache.record(subscription, StripeObjectCache.now());
         logger.info("Created Stripe subscription: {} for customer: {}", subscription.getId(), customerId);
         return subscription;
     }
@@ -215,6 +252,7 @@ public class StripeService {
         Map<String, Object> params = new HashMap<>();
         params.put("cancel_at_period_end", true);
         subscription = subscription.update(params);
+        objectCache.record(subscription, StripeObjectCache.now());
         logger.info("Scheduled Stripe subscription {} to cancel at period end", subscriptionId);
         return subscription;
     }
@@ -233,6 +271,7 @@ public class StripeService {
     @CircuitBreaker(name = "stripe", fallbackMethod = "cancelSubscriptionFallback")
     public Subscription cancelSubscriptionImmediately(String subscriptionId) throws StripeException {
         Subscription subscription = Subscription.retrieve(subscriptionId).cancel();
+        objectCache.record(subscription, StripeObjectCache.now());
         logger.info("Cancelled Stripe subscription {} immediately", subscriptionId);
         return subscription;
     }
@@ -248,6 +287,7 @@ public class StripeService {
     @CircuitBreaker(name = "stripe", fallbackMethod = "deleteCustomerFallback")
     public void deleteCustomer(String customerId) throws StripeException {
         Customer.retrieve(customerId).delete();
+        objectCache.evictCustomer(customerId);
         logger.info("Deleted Stripe customer {}", customerId);
     }
 
@@ -256,11 +296,42 @@ public class StripeService {
     }
 
     /**
-     * Get subscription by ID.
+     * Get subscription by ID, from {@link StripeObjectCache} when a webhook or an earlier call
+     * has already brought it in.
      */
     @CircuitBreaker(name = "stripe", fallbackMethod = "getSubscriptionFallback")
     public Subscription getSubscription(String subscriptionId) throws StripeException {
-        return Subscription.retrieve(subscriptionId);
+        Subscription cached = objectCache.subscription(subscriptionId).orElse(null);
+        return cached != null ? cached : fetchSubscription(subscriptionId);
+    }
+
+    /**
+     * Get subscription by ID straight from Stripe, for callers whose whole point is to check
+     * our state against Stripe's. Refreshes the cache on the way.
+     */
+    @CircuitBreaker(name = "stripe", fallbackMethod = "getSubscriptionFallback")
+    public Subscription fetchSubscription(String subscriptionId) throws StripeException {
+        Subscription subscription = Subscription.retrieve(subscriptionId);
+        objectCache.record(subscription, StripeObjectCache.now());
+        return subscription;
+    }
+
+    /**
+     * Get customer by ID, from {@link StripeObjectCache} when possible.
+     */
+    @CircuitBreaker(name = "stripe", fallbackMethod = "getCustomerFallback")
+    public Customer getCustomer(String customerId) throws StripeException {
+        Customer cached = objectCache.customer(customerId).orElse(null);
+        if (cached != null) {
+            return cached;
+        }
+        Customer customer = Customer.retrieve(customerId);
+        objectCache.record(customer, StripeObjectCache.now());
+        return customer;
+    }
+
+    private Customer getCustomerFallback(String customerId, Exception ex) {
+        throw new RuntimeException("Stripe service temporarily unavailable. Please try again later.", ex);
     }
 
     private Subscription getSubscriptionFallback(String subscriptionId, Exception ex) {
@@ -290,6 +361,13 @@ public class StripeService {
         throw new RuntimeException("Stripe service temporarily unavailable. Please try again later.", ex);
     }
 
+    /**
+     * Get a Checkout Session by ID straight from Stripe.
+     */
+    public Session getCheckoutSession(String sessionId) throws StripeException {
+        return Session.retrieve(sessionId);
+    }
+
     /**
      * Create Stripe Checkout Session for subscription.
      * Stripe automatically sends receipts when payment succeeds (if enabled in Stripe Dashboard).
@@ -306,7 +384,12 @@ public class StripeService {
             String billingInterval,
             String planType
     ) throws StripeException {
-        Customer customer = Customer.retrieve(stripeCustomerId);
+        // Only read for logging; a cached copy is as good as a fresh one.
+        Customer customer = objectCache.customer(stripeCustomerId).orElse(null);
+        if (customer == null) {
+            customer = Customer.retrieve(stripeCustomerId);
+            objectCache.record(customer, StripeObjectCache.now());
+        }
         String customerEmail = customer.getEmail();
 
         if (customerEmail == null || customerEmail.isEmpty()) {
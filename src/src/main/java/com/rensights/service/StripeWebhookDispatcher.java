@@ -0,0 +1,191 @@
+package com.rensights.service;
+
+import com.rensights.model.StripeWebhookEvent;
+import com.stripe.model.Event;
+import com.stripe.model.StripeObject;
+import com.stripe.net.ApiResource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Works through the Stripe webhook inbox on a small worker pool.
+ *
+ * <p>One drain loop per instance claims up to {@code workers} due events - at most one per
+ * customer, see {@link com.rensights.repository.StripeWebhookEventRepository#lockDue} - runs them
+ * in parallel, and claims again until nothing is due. Different customers are processed
+ * concurrently; one customer's events strictly in the order Stripe created them.
+ *
+ * <p>A drain starts as soon as a new event commits, so processing normally follows the
+ * acknowledgement within milliseconds; the poll picks up retries and anything another replica
+ * left behind.
+ */
+@Component
+public class StripeWebhookDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(StripeWebhookDispatcher.class);
+
+    private final StripeWebhookInboxService inbox;
+    private final StripeWebhookProcessor processor;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService drainer;
+    private final ExecutorService workers;
+    private final int workerCount;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+
+    @Value("${app.stripe-webhook-inbox.enabled:true}")
+    private boolean enabled;
+
+    /** Finished events are kept this long; must exceed Stripe's three-day redelivery window. */
+    @Value("${app.stripe-webhook-inbox.retention:30d}")
+    private Duration retention;
+
+    public StripeWebhookDispatcher(StripeWebhookInboxService inbox, StripeWebhookProcessor processor,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${app.stripe-webhook-inbox.workers:4}") int workerCount) {
+        this.inbox = inbox;
+        this.processor = processor;
+        this.meterRegistry = meterRegistry;
+        this.workerCount = Math.max(1, workerCount);
+        this.drainer = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("stripe-webhook-drain-"));
+        this.workers = Executors.newFixedThreadPool(this.workerCount, new CustomizableThreadFactory("stripe-webhook-"));
+
+        Gauge.builder("stripe_webhook.pending", inbox, StripeWebhookInboxService::pendingCount)
+            .description("Stripe webhook events received but not yet processed or abandoned")
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        drainer.shutdown();
+        workers.shutdown();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onReceived(StripeWebhookInboxService.Received event) {
+        if (enabled) {
+            requestDrain();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.stripe-webhook-inbox.poll-interval-ms:10000}",
+               initialDelayString = "${app.stripe-webhook-inbox.initial-delay-ms:15000}")
+    public void poll() {
+        if (enabled) {
+            requestDrain();
+        }
+    }
+
+    @Scheduled(cron = "${app.stripe-webhook-inbox.purge-cron:0 45 3 * * *}")
+    public void purge() {
+        int removed = inbox.purgeFinishedBefore(LocalDateTime.now().minus(retention));
+        if (removed > 0) {
+            logger.info("Purged {} finished Stripe webhook event(s)", removed);
+        }
+    }
+
+    /**
+     * Start a drain, or if one is running, make it go round once more so an event committed while
+     * it was finishing is not left for the next poll.
+     */
+    private void requestDrain() {
+        drainRequested.set(true);
+        if (!draining.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            drainer.execute(() -> {
+                try {
+                    while (drainRequested.getAndSet(false)) {
+                        drain();
+                    }
+                } finally {
+                    draining.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            draining.set(false);
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            List<StripeWebhookEvent> batch;
+            try {
+                batch = inbox.claimDue(workerCount);
+            } catch (Exception e) {
+                logger.error("Stripe webhook inbox: could not claim events: {}", e.getMessage());
+                return;
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            List<CompletableFuture<Void>> running = new ArrayList<>(batch.size());
+            for (StripeWebhookEvent event : batch) {
+                running.add(CompletableFuture.runAsync(() -> handle(event), workers));
+            }
+            CompletableFuture.allOf(running.toArray(new CompletableFuture[0])).join();
+        }
+    }
+
+    private void handle(StripeWebhookEvent row) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "processed";
+        try {
+            Event event = StripeObject.deserializeStripeObject(row.getPayload(), Event.class,
+                ApiResource.getGlobalResponseGetter());
+            processor.process(event);
+            inbox.markProcessed(row.getId());
+            Timer.builder("stripe_webhook.lag")
+                .description("Time from receipt to successful processing")
+                .tag("type", row.getType())
+                .register(meterRegistry)
+                .record(Duration.between(row.getReceivedAt(), LocalDateTime.now()));
+        } catch (Exception e) {
+            String error = e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+            outcome = markFailed(row, error) ? "retried" : "abandoned";
+        } finally {
+            sample.stop(Timer.builder("stripe_webhook.process")
+                .description("Time to process one Stripe webhook event")
+                .tag("type", row.getType())
+                .tag("outcome", outcome)
+                .register(meterRegistry));
+            Counter.builder("stripe_webhook.events")
+                .tag("type", row.getType())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+        }
+    }
+
+    private boolean markFailed(StripeWebhookEvent row, String error) {
+        try {
+            return inbox.markFailed(row.getId(), error);
+        } catch (Exception e) {
+            // The lease runs out and the event is claimed again.
+            logger.error("Stripe webhook inbox: could not record failure of {}: {}", row.getId(), e.getMessage());
+            return true;
+        }
+    }
+}
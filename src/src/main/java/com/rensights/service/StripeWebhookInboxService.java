@@ -0,0 +1,178 @@
+package com.rensights.service;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.rensights.model.StripeWebhookEvent;
+import com.rensights.repository.StripeWebhookEventRepository;
+import com.stripe.model.Event;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The Stripe webhook inbox: the webhook endpoint verifies the signature, stores the raw event
+ * here and acknowledges; {@link StripeWebhookDispatcher} processes it afterwards.
+ *
+ * <p>Stripe retries any delivery that is not acknowledged within its timeout. Doing the work
+ * inline (Stripe lookups, subscription updates, receipt emails) meant a slow dependency caused
+ * a redelivery, which did the same slow work again. Acknowledging on a durable insert breaks that
+ * loop, and the event id as primary key turns every redelivery into a no-op.
+ *
+ * <p>This class owns every state change of an inbox row so the dispatcher stays free of
+ * transactions.
+ */
+@Service
+public class StripeWebhookInboxService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StripeWebhookInboxService.class);
+
+    /** Published when a new event is stored; the dispatcher picks it up after commit. */
+    public record Received(String eventId) {
+    }
+
+    private final StripeWebhookEventRepository repository;
+    private final ApplicationEventPublisher events;
+    private final Counter received;
+    private final Counter duplicates;
+
+    @Value("${app.stripe-webhook-inbox.max-attempts:10}")
+    private int maxAttempts;
+
+    /** First retry delay; doubles per attempt up to {@code max-backoff}. */
+    @Value("${app.stripe-webhook-inbox.base-backoff:15s}")
+    private Duration baseBackoff;
+
+    @Value("${app.stripe-webhook-inbox.max-backoff:30m}")
+    private Duration maxBackoff;
+
+    /** How long a worker holds a claimed event before another may take it over. */
+    @Value("${app.stripe-webhook-inbox.lease:5m}")
+    private Duration lease;
+
+    public StripeWebhookInboxService(StripeWebhookEventRepository repository, ApplicationEventPublisher events,
+                                     MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.events = events;
+        this.received = Counter.builder("stripe_webhook.received").tag("result", "new")
+            .description("Verified Stripe webhook deliveries").register(meterRegistry);
+        this.duplicates = Counter.builder("stripe_webhook.received").tag("result", "duplicate")
+            .description("Verified Stripe webhook deliveries").register(meterRegistry);
+    }
+
+    /**
+     * Store a verified event.
+     *
+     * @return false if this event id was already stored (a redelivery)
+     */
+    @Transactional
+    public boolean accept(Event event, String payload) {
+        int inserted = repository.insertIfAbsent(event.getId(), event.getType(), customerIdOf(payload),
+                event.getCreated() != null ? event.getCreated() : 0L, payload, LocalDateTime.now());
+        if (inserted == 0) {
+            duplicates.increment();
+            return false;
+        }
+        received.increment();
+        events.publishEvent(new Received(event.getId()));
+        return true;
+    }
+
+    /** Lease up to {@code limit} due events, at most one per customer. Each lease counts as an attempt. */
+    @Transactional
+    public List<StripeWebhookEvent> claimDue(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<StripeWebhookEvent> due = repository.lockDue(now, limit);
+        for (StripeWebhookEvent event : due) {
+            event.setLockedUntil(now.plus(lease));
+            event.setAttempts(event.getAttempts() + 1);
+        }
+        return due;
+    }
+
+    @Transactional
+    public void markProcessed(String id) {
+        repository.findById(id).ifPresent(event -> {
+            event.setStatus(StripeWebhookEvent.Status.PROCESSED);
+            event.setProcessedAt(LocalDateTime.now());
+            event.setLockedUntil(null);
+            event.setLastError(null);
+        });
+    }
+
+    /**
+     * Record a failed attempt: schedule a retry with exponential backoff, or give up once the
+     * attempts are spent. A given-up event no longer holds back its customer's later events.
+     *
+     * @return true if the event will be retried
+     */
+    @Transactional
+    public boolean markFailed(String id, String error) {
+        StripeWebhookEvent event = repository.findById(id).orElse(null);
+        if (event == null) {
+            return false;
+        }
+        event.setLockedUntil(null);
+        event.setLastError(error == null ? null : error.substring(0, Math.min(error.length(), 1000)));
+        if (event.getAttempts() >= maxAttempts) {
+            event.setStatus(StripeWebhookEvent.Status.FAILED);
+            logger.error("Stripe event {} ({}) abandoned after {} attempt(s): {}", id, event.getType(),
+                    event.getAttempts(), error);
+            return false;
+        }
+        Duration backoff = backoff(event.getAttempts());
+        event.setNextAttemptAt(LocalDateTime.now().plus(backoff));
+        logger.warn("Stripe event {} ({}) failed (attempt {}), retrying in {}s: {}", id, event.getType(),
+                event.getAttempts(), backoff.toSeconds(), error);
+        return true;
+    }
+
+    public long pendingCount() {
+        return repository.countByStatus(StripeWebhookEvent.Status.PENDING);
+    }
+
+    @Transactional
+    public int purgeFinishedBefore(LocalDateTime before) {
+        return repository.deleteFinishedBefore(before);
+    }
+
+    private Duration backoff(int attempts) {
+        long factor = 1L << Math.min(Math.max(attempts - 1, 0), 20);
+        Duration delay = baseBackoff.multipliedBy(factor);
+        return delay.compareTo(maxBackoff) > 0 ? maxBackoff : delay;
+    }
+
+    /**
+     * The customer an event is about, read from the raw payload so it works for every object type
+     * (invoice, subscription, checkout session, customer) and for expanded customers.
+     */
+    static String customerIdOf(String payload) {
+        try {
+            JsonObject object = JsonParser.parseString(payload).getAsJsonObject()
+                    .getAsJsonObject("data").getAsJsonObject("object");
+            if ("customer".equals(stringOrNull(object.get("object")))) {
+                return stringOrNull(object.get("id"));
+            }
+            JsonElement customer = object.get("customer");
+            if (customer != null && customer.isJsonObject()) {
+                return stringOrNull(customer.getAsJsonObject().get("id"));
+            }
+            return stringOrNull(customer);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String stringOrNull(JsonElement element) {
+        return element == null || element.isJsonNull() || !element.isJsonPrimitive() ? null : element.getAsString();
+    }
+}
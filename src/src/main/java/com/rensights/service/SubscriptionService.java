@@ -11,6 +11,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -33,6 +34,7 @@ public class SubscriptionService {
     private UserRepository userRepository;
     
     @Autowired
+    @Lazy
     private StripeService stripeService;
 
     @Autowired
@@ -503,7 +505,7 @@ public class SubscriptionService {
         }
         
         try {
-            com.stripe.model.Subscription stripeSub = stripeService.getSubscription(stripeSubscriptionId);
+            com.stripe.model.Subscription stripeSub = stripeService.fetchSubscription(stripeSubscriptionId);
             String status = stripeSub.getStatus();
             
             if ("active".equals(status) || "trialing".equals(status)) {
@@ -1,32 +1,62 @@
 package com.rensights.service;
 
-import com.rensights.model.RevokedToken;
 import com.rensights.repository.RevokedTokenRepository;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
 
 /**
  * SECURITY: Token revocation service for blacklisting JWT tokens.
  *
- * Tokens are stored by SHA-256 hash in the revoked_tokens table with an
- * expiry timestamp equal to the JWT's own expiry. The scheduled cleanup
- * (cleanupExpiredTokens) removes rows that are past expiry so the table
- * stays small.
+ * Tokens are stored by their raw 32-byte SHA-256 hash together with the JWT's own expiry, in
+ * revoked_tokens partitioned by expiry day (see {@link RevokedTokenRepository}). Lookups pass
+ * the expiry too, so each check is one primary-key probe in one small partition no matter how
+ * many tokens have ever been revoked.
+ *
+ * Expiry is handled by dropping whole partitions: once a day is over, every token in its
+ * partition has expired. {@link #maintain()} does that and creates the partitions for the days
+ * ahead, on every replica's schedule but under a Postgres advisory lock, so only one replica
+ * runs it at a time.
  */
 @Service
 public class TokenRevocationService {
 
     private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
 
-    @Autowired
-    private RevokedTokenRepository repository;
+    private final RevokedTokenRepository repository;
+    private final TransactionTemplate transactions;
+
+    /** Partitions kept ready beyond today: a token issued now expires within this many days. */
+    private final int daysAhead;
+
+    public TokenRevocationService(RevokedTokenRepository repository, TransactionTemplate transactions,
+                                  @Value("${jwt.expiration:86400000}") long jwtExpirationMillis) {
+        this.repository = repository;
+        this.transactions = transactions;
+        this.daysAhead = (int) Math.max(2, (jwtExpirationMillis + 86_399_999L) / 86_400_000L + 1);
+    }
+
+    /** Make sure the table and today's partitions exist before the first request is checked. */
+    @PostConstruct
+    public void init() {
+        try {
+            maintain();
+        } catch (RuntimeException e) {
+            logger.error("Could not prepare revoked_tokens partitions: {}", e.getMessage(), e);
+        }
+    }
 
     /**
      * Revoke a token by persisting its hash to the database.
@@ -34,68 +64,88 @@ public class TokenRevocationService {
      * @param token                JWT string to revoke
      * @param expirationTimeMillis epoch-millis of the JWT's own expiry
      */
-    @Transactional
     public void revokeToken(String token, long expirationTimeMillis) {
-        String tokenHash = hashToken(token);
-        LocalDateTime expiresAt = LocalDateTime.ofInstant(
-                Instant.ofEpochMilli(expirationTimeMillis),
-                ZoneId.systemDefault());
-
-        RevokedToken revokedToken = RevokedToken.builder()
-                .tokenHash(tokenHash)
-                .expiresAt(expiresAt)
-                .build();
-
-        repository.save(revokedToken);
-        logger.info("Token revoked: hash={}", tokenHash);
+        // JWT expiry has second precision; store it exactly as the claim will read back.
+        Instant expiresAt = Instant.ofEpochSecond(expirationTimeMillis / 1000);
+        if (!expiresAt.isAfter(Instant.now())) {
+            return;
+        }
+        byte[] tokenHash = hashToken(token);
+        repository.insert(tokenHash, expiresAt);
+        logger.info("Token revoked: hash={}", HexFormat.of().formatHex(tokenHash));
     }
 
     /**
-     * Check if a token has been revoked.
+     * Check if a token has been revoked. Only call this for a token whose signature has been
+     * verified; {@code expiresAt} is its {@code exp} claim.
      *
-     * @param token JWT string to check
+     * @param expiresAt the token's expiry, or null if it has none (slower: searches every partition)
      * @return true if the token is in the revocation table
      */
-    public boolean isTokenRevoked(String token) {
-        String tokenHash = hashToken(token);
-        boolean revoked = repository.existsByTokenHash(tokenHash);
+    public boolean isTokenRevoked(String token, Instant expiresAt) {
+        byte[] tokenHash = hashToken(token);
+        boolean revoked = expiresAt == null
+            ? repository.exists(tokenHash)
+            : repository.exists(tokenHash, expiresAt);
 
         if (revoked) {
-            logger.warn("Revoked token access attempt detected: hash={}", tokenHash);
+            logger.warn("Revoked token access attempt detected: hash={}", HexFormat.of().formatHex(tokenHash));
         }
 
         return revoked;
     }
 
     /**
-     * Remove expired revocation records. Call this from a scheduled task to
-     * keep the table compact.
+     * Create the partitions for today and the coming days, and drop the ones for days that are
+     * over. Skipped if another replica is already doing it.
      */
-    @Transactional
-    public void cleanupExpiredTokens() {
-        int deleted = repository.deleteExpired(LocalDateTime.now());
-        logger.debug("Cleaned up {} expired revoked tokens", deleted);
+    @Scheduled(cron = "${app.token-revocation.maintenance-cron:0 5 * * * *}")
+    public void maintain() {
+        transactions.executeWithoutResult(status -> {
+            if (!repository.tryMaintenanceLock()) {
+                logger.debug("revoked_tokens maintenance running on another instance, skipping");
+                return;
+            }
+
+            String kind = repository.tableKind();
+            boolean legacy = "r".equals(kind);
+            if (legacy) {
+                logger.info("Converting revoked_tokens to a partitioned table");
+                repository.renameLegacyTable();
+            }
+            repository.createTable();
+
+            LocalDate today = LocalDate.now(ZoneOffset.UTC);
+            for (int i = 0; i <= daysAhead; i++) {
+                repository.createDayPartition(today.plusDays(i));
+            }
+            if (legacy) {
+                logger.info("Copied {} live revoked token(s) from the old table", repository.migrateLegacyRows());
+            }
+
+            int dropped = 0;
+            for (LocalDate day : repository.dayPartitions()) {
+                if (day.isBefore(today)) {
+                    repository.dropDayPartition(day);
+                    dropped++;
+                }
+            }
+            int strays = repository.deleteExpiredFromDefault(Instant.now());
+            if (dropped > 0 || strays > 0) {
+                logger.info("Purged {} expired revoked_tokens partition(s) and {} stray row(s)", dropped, strays);
+            }
+        });
     }
 
     /**
      * Hash token for storage (SHA-256).
      */
-    private String hashToken(String token) {
+    private byte[] hashToken(String token) {
         try {
-            java.security.MessageDigest digest = java.security.MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(token.getBytes(java.nio.charset.StandardCharsets.UTF_8));
-            return bytesToHex(hash);
-        } catch (java.security.NoSuchAlgorithmException e) {
-            // Fallback — SHA-256 is always available in standard JVMs
-            return String.valueOf(token.hashCode());
-        }
-    }
-
-    private String bytesToHex(byte[] bytes) {
-        StringBuilder result = new StringBuilder();
-        for (byte b : bytes) {
-            result.append(String.format("%02x", b));
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // Every JVM is required to provide SHA-256.
+            throw new IllegalStateException("SHA-256 not available", e);
         }
-        return result.toString();
     }
 }
@@ -3,6 +3,8 @@ package com.rensights.service;
 import com.rensights.dto.TranslationsResponse;
 import com.rensights.model.Translation;
 import com.rensights.repository.TranslationRepository;
+import com.rensights.util.CompressedJson;
+import com.rensights.util.JsonCompressor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
@@ -18,10 +20,12 @@ import java.util.stream.Collectors;
 public class TranslationService {
 
     private final TranslationRepository translationRepository;
+    private final JsonCompressor jsonCompressor;
 
+    /** Ready-to-send JSON body (a TranslationsResponse), cached compressed. */
     @Cacheable(cacheNames = "translations", key = "#languageCode + ':' + #namespace")
     @Transactional(readOnly = true)
-    public TranslationsResponse getTranslationsByLanguageAndNamespace(String languageCode, String namespace) {
+    public CompressedJson getTranslationsByLanguageAndNamespace(String languageCode, String namespace) {
         List<Translation> translations = translationRepository.findByLanguageCodeAndNamespace(languageCode, namespace);
         
         Map<String, String> translationMap = translations.stream()
@@ -34,11 +38,11 @@ public class TranslationService {
         // path on every change (read straight from the DB).
         LocalDateTime latestUpdatedAt = translationRepository.findLatestUpdatedAt(languageCode, namespace);
 
-        return TranslationsResponse.builder()
+        return jsonCompressor.compress(TranslationsResponse.builder()
             .languageCode(languageCode)
             .namespace(namespace)
             .translations(translationMap)
             .updatedAt(latestUpdatedAt != null ? latestUpdatedAt.toString() : null)
-            .build();
+            .build());
     }
 }
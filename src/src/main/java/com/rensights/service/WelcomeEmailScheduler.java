@@ -52,8 +52,11 @@ public class WelcomeEmailScheduler {
     @Value("${app.welcome-email.max-age-hours:24}")
     private long maxAgeHours;
 
-    /** Cap per run, so a backlog drains steadily instead of in one burst. */
-    @Value("${app.welcome-email.batch-size:50}")
+    /**
+     * Cap per run, so a backlog drains steadily instead of in one burst. The runner sends in
+     * parallel Graph batches, so a run of this size is a handful of round trips.
+     */
+    @Value("${app.welcome-email.batch-size:500}")
     private int batchSize;
 
     public WelcomeEmailScheduler(UserRepository userRepository, EmailService emailService,
@@ -78,6 +81,7 @@ public class WelcomeEmailScheduler {
 
         runner.run("Welcome email", due,
             userRepository::claimWelcomeEmail,
-            user -> emailService.sendWelcomeEmail(user.getEmail(), user.getFirstName()));
+            userRepository::releaseWelcomeEmail,
+            user -> emailService.composeWelcomeEmail(user.getEmail(), user.getFirstName()));
     }
 }
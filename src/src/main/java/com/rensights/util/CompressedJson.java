@@ -0,0 +1,55 @@
+package com.rensights.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A JSON response body kept gzip-compressed, as built by {@link JsonCompressor}.
+ *
+ * <p>Cached instead of the DTO it was made from: text-heavy bodies (article HTML, landing page
+ * content, translation maps, deal details) shrink several-fold, and a client that accepts gzip
+ * is sent these bytes as they are (see {@code CompressedJsonHttpMessageConverter}), so neither
+ * serialization nor Tomcat's compression runs per request. Only clients without gzip support
+ * cost a decompression.
+ */
+public final class CompressedJson {
+
+    private final byte[] gzipped;
+    private final int uncompressedLength;
+
+    CompressedJson(byte[] gzipped, int uncompressedLength) {
+        this.gzipped = gzipped;
+        this.uncompressedLength = uncompressedLength;
+    }
+
+    /**
+     * Rewrap bytes previously taken from {@link #gzipped()}. The uncompressed length is read from
+     * the gzip trailer.
+     */
+    public static CompressedJson fromGzipped(byte[] gzipped) {
+        if (gzipped.length < 18) {
+            throw new IllegalArgumentException("Not a gzip stream");
+        }
+        int n = gzipped.length;
+        int length = (gzipped[n - 4] & 0xFF)
+            | (gzipped[n - 3] & 0xFF) << 8
+            | (gzipped[n - 2] & 0xFF) << 16
+            | (gzipped[n - 1] & 0xFF) << 24;
+        return new CompressedJson(gzipped, length);
+    }
+
+    /** The gzip stream itself; do not modify. */
+    public byte[] gzipped() {
+        return gzipped;
+    }
+
+    public int uncompressedLength() {
+        return uncompressedLength;
+    }
+
+    public InputStream openUncompressed() throws IOException {
+        return new GZIPInputStream(new ByteArrayInputStream(gzipped), 8192);
+    }
+}
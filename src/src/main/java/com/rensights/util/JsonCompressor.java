@@ -0,0 +1,59 @@
+package com.rensights.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serializes response bodies to gzip-compressed JSON for caching ({@link CompressedJson}).
+ *
+ * <p>Uses the application's ObjectMapper, so the bytes are exactly what Spring MVC would have
+ * written for the same object (dates, naming, null handling). Deflate runs at level 1: entries
+ * are compressed once per cache fill, but that still happens on a request thread, and the
+ * higher levels gain little on JSON.
+ */
+@Component
+public class JsonCompressor {
+
+    private final ObjectMapper objectMapper;
+
+    public JsonCompressor(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    public CompressedJson compress(Object value) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(value);
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+            try (OutputStream gzip = new FastGzipOutputStream(buffer)) {
+                gzip.write(json);
+            }
+            return new CompressedJson(buffer.toByteArray(), json.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not compress " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    /** Read a compressed body back as an object, for the rare caller that has to change it. */
+    public <T> T decompress(CompressedJson json, Class<T> type) {
+        try (InputStream in = json.openUncompressed()) {
+            return objectMapper.readValue(in, type);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read back a " + type.getSimpleName(), e);
+        }
+    }
+
+    private static final class FastGzipOutputStream extends GZIPOutputStream {
+        FastGzipOutputStream(OutputStream out) throws IOException {
+            super(out, 8192);
+            def.setLevel(Deflater.BEST_SPEED);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+-- Durable outbox for verification / password reset emails (EmailOutboxMessage).
+--
+-- IMPORTANT: Flyway is EXCLUDED in this project (see pom.xml), so this file is
+-- NOT applied automatically. Run it MANUALLY against Postgres before deploying
+-- to a database running with hibernate.ddl-auto=validate. In dev (ddl-auto=update)
+-- Hibernate creates the table and indexes from the entity.
+
+CREATE TABLE IF NOT EXISTS email_outbox (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    priority INTEGER NOT NULL,
+    to_email VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    -- Cleared once the message is sent or abandoned; it may carry a live code.
+    body TEXT,
+    is_html BOOLEAN NOT NULL,
+    reply_to VARCHAR(255),
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    locked_until TIMESTAMP,
+    expires_at TIMESTAMP,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP
+);
+
+-- Backs the dispatcher's claim: WHERE status = 'PENDING' AND priority <= ? ORDER BY priority, next_attempt_at
+CREATE INDEX IF NOT EXISTS idx_email_outbox_due ON email_outbox (status, priority, next_attempt_at);
+
+-- Backs account erasure (AccountDeletionService)
+CREATE INDEX IF NOT EXISTS idx_email_outbox_to_email ON email_outbox (to_email);
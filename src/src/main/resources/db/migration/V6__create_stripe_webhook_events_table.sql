@@ -0,0 +1,30 @@
+-- Stripe webhook inbox (StripeWebhookEvent).
+--
+-- IMPORTANT: Flyway is EXCLUDED in this project (see pom.xml), so this file is
+-- NOT applied automatically. Run it MANUALLY against Postgres before deploying
+-- to a database running with hibernate.ddl-auto=validate. In dev (ddl-auto=update)
+-- Hibernate creates the table and indexes from the entity.
+
+CREATE TABLE IF NOT EXISTS stripe_webhook_events (
+    -- Stripe's event id (evt_...); the primary key deduplicates redeliveries.
+    id VARCHAR(255) PRIMARY KEY,
+    type VARCHAR(255) NOT NULL,
+    customer_id VARCHAR(255),
+    event_created BIGINT NOT NULL,
+    payload TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    locked_until TIMESTAMP,
+    last_error VARCHAR(1000),
+    received_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP
+);
+
+-- Backs the dispatcher's claim: WHERE status = 'PENDING' AND next_attempt_at <= ?
+CREATE INDEX IF NOT EXISTS idx_stripe_webhook_events_due
+    ON stripe_webhook_events (status, next_attempt_at);
+
+-- Backs the per-customer ordering check (is an older event of this customer still pending?)
+CREATE INDEX IF NOT EXISTS idx_stripe_webhook_events_customer
+    ON stripe_webhook_events (customer_id, status, event_created);
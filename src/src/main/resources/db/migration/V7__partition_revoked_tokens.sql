@@ -0,0 +1,54 @@
+-- Partition revoked_tokens by expiry day and store raw SHA-256 hashes (TokenRevocationService).
+--
+-- IMPORTANT: Flyway is EXCLUDED in this project (see pom.xml), so this file is
+-- NOT applied automatically. Run it MANUALLY against Postgres before deploying.
+-- The application performs the same conversion on startup (under an advisory lock)
+-- if it finds the old table, and creates the daily partitions itself from then on;
+-- this script is for environments where the app user may not run DDL.
+--
+-- Old layout: one plain table, 64-char hex token_hash with a unique index, rows
+-- deleted one by one (in practice never). New layout: BYTEA(32) hash, primary key
+-- (token_hash, expires_at), one partition per UTC day of expires_at. Expiry is a
+-- DROP TABLE of a finished day's partition.
+
+BEGIN;
+
+ALTER TABLE IF EXISTS revoked_tokens RENAME TO revoked_tokens_legacy;
+
+CREATE TABLE revoked_tokens (
+    token_hash BYTEA NOT NULL,
+    expires_at TIMESTAMPTZ NOT NULL,
+    revoked_at TIMESTAMPTZ NOT NULL DEFAULT now(),
+    CONSTRAINT pk_revoked_tokens PRIMARY KEY (token_hash, expires_at)
+) PARTITION BY RANGE (expires_at);
+
+-- Catches anything outside the daily partitions; should stay empty.
+CREATE TABLE revoked_tokens_default PARTITION OF revoked_tokens DEFAULT;
+
+-- Today plus a week ahead; the application keeps extending this.
+DO $$
+DECLARE
+    d DATE;
+BEGIN
+    FOR d IN SELECT generate_series((now() AT TIME ZONE 'UTC')::date,
+                                    (now() AT TIME ZONE 'UTC')::date + 7, INTERVAL '1 day')::date LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF revoked_tokens FOR VALUES FROM (%L) TO (%L)',
+                       'revoked_tokens_p' || to_char(d, 'YYYYMMDD'),
+                       d::text || ' 00:00:00+00', (d + 1)::text || ' 00:00:00+00');
+    END LOOP;
+END $$;
+
+-- Carry over revocations that are still live; expired ones are simply dropped.
+DO $$
+BEGIN
+    IF to_regclass('revoked_tokens_legacy') IS NOT NULL THEN
+        INSERT INTO revoked_tokens (token_hash, expires_at)
+        SELECT decode(token_hash, 'hex'), expires_at
+        FROM revoked_tokens_legacy
+        WHERE expires_at > now() AND length(token_hash) = 64
+        ON CONFLICT DO NOTHING;
+        DROP TABLE revoked_tokens_legacy;
+    END IF;
+END $$;
+
+COMMIT;
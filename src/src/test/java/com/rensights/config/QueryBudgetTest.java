@@ -0,0 +1,202 @@
+package com.rensights.config;
+
+import com.rensights.controller.AnalyticsController;
+import com.rensights.controller.ArticleController;
+import com.rensights.controller.ReportController;
+import com.rensights.model.Article;
+import com.rensights.model.ArticleCategory;
+import com.rensights.model.ReportDocument;
+import com.rensights.model.ReportSection;
+import com.rensights.model.User;
+import com.rensights.model.UserTier;
+import com.rensights.repository.ArticleCategoryRepository;
+import com.rensights.repository.ArticleRepository;
+import com.rensights.repository.ReportDocumentRepository;
+import com.rensights.repository.ReportSectionRepository;
+import com.rensights.repository.UserRepository;
+import com.rensights.service.JwtService;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Runs the endpoints that declare a {@link QueryBudget} against a real Postgres with
+ * {@code app.query-budget.mode=fail}, with several rows behind each so a query per row shows up.
+ * Caches are cleared first, so every request pays for its queries. An N+1 regression on any of
+ * them fails this test, and with it the build.
+ */
+@SpringBootTest(properties = {
+    "app.query-budget.mode=fail",
+    "app.query-budget.expose-header=true",
+    "spring.jpa.hibernate.ddl-auto=create-drop",
+    "cors.allowed-origins=http://localhost",
+    "app.deals.snapshot.enabled=false",
+    "app.cache.warmup.enabled=false"
+})
+@AutoConfigureMockMvc
+class QueryBudgetTest {
+
+    private static final int ROWS = 5;
+
+    private static EmbeddedPostgres postgres;
+
+    @DynamicPropertySource
+    static void database(DynamicPropertyRegistry registry) throws IOException {
+        if (postgres == null) {
+            postgres = EmbeddedPostgres.start();
+        }
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl("postgres", "postgres"));
+        registry.add("spring.datasource.username", () -> "postgres");
+        registry.add("spring.datasource.password", () -> "");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ReportSectionRepository sectionRepository;
+
+    @Autowired
+    private ReportDocumentRepository documentRepository;
+
+    @Autowired
+    private ArticleRepository articleRepository;
+
+    @Autowired
+    private ArticleCategoryRepository categoryRepository;
+
+    private String token;
+
+    @BeforeEach
+    void seed() {
+        if (userRepository.count() == 0) {
+            userRepository.save(User.builder()
+                .email("budget@example.com")
+                .passwordHash("x")
+                .userTier(UserTier.PREMIUM)
+                .emailVerified(true)
+                .build());
+            for (int i = 0; i < ROWS; i++) {
+                ReportSection section = sectionRepository.save(ReportSection.builder()
+                    .sectionKey("section-" + i)
+                    .title("Section " + i)
+                    .navTitle("Section " + i)
+                    .accessTier(i % 2 == 0 ? UserTier.FREE : UserTier.PREMIUM)
+                    .displayOrder(i)
+                    .languageCode("en")
+                    .isActive(true)
+                    .build());
+                for (int j = 0; j < 2; j++) {
+                    documentRepository.save(ReportDocument.builder()
+                        .section(section)
+                        .title("Document " + i + "." + j)
+                        .displayOrder(j)
+                        .languageCode("en")
+                        .isActive(true)
+                        .build());
+                }
+                ArticleCategory category = categoryRepository.save(ArticleCategory.builder()
+                    .slug("category-" + i)
+                    .label("Category " + i)
+                    .build());
+                articleRepository.save(Article.builder()
+                    .title("Article " + i)
+                    .slug("article-" + i)
+                    .publishedAt(LocalDateTime.now().minusDays(i))
+                    .categories(Set.of(category))
+                    .build());
+            }
+        }
+        User user = userRepository.findAll().get(0);
+        token = jwtService.generateToken(user.getId(), user.getEmail());
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void reportSectionsStayWithinBudget() throws Exception {
+        MvcResult result = perform(get("/api/reports/sections").header("Authorization", "Bearer " + token));
+
+        assertWithinBudget(result, ReportController.class, "getSections");
+        assertThat(result.getResponse().getContentAsString()).contains("Document 1.1");
+    }
+
+    @Test
+    void articleListStaysWithinBudget() throws Exception {
+        MvcResult result = perform(get("/api/articles"));
+
+        assertWithinBudget(result, ArticleController.class, "listPublic");
+        assertThat(result.getResponse().getContentAsString()).contains("category-" + (ROWS - 1));
+    }
+
+    @Test
+    void eventIngestionStaysWithinBudget() throws Exception {
+        StringBuilder events = new StringBuilder("[");
+        for (int i = 0; i < 20; i++) {
+            events.append(i == 0 ? "" : ",").append("{\"eventType\":\"page_view\",\"pagePath\":\"/p/").append(i).append("\"}");
+        }
+        MvcResult result = perform(post("/api/analytics/events")
+            .header("Authorization", "Bearer " + token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(events.append("]").toString()));
+
+        assertWithinBudget(result, AnalyticsController.class, "trackEvents");
+        assertThat(result.getResponse().getContentAsString()).contains("\"ok\"");
+    }
+
+    /** Controllers run on a request-class executor (RequestBulkheads); follow the async dispatch. */
+    private MvcResult perform(RequestBuilder request) throws Exception {
+        MvcResult result = mockMvc.perform(request).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            result = mockMvc.perform(asyncDispatch(result)).andReturn();
+        }
+        return result;
+    }
+
+    private static void assertWithinBudget(MvcResult result, Class<?> controller, String handler) {
+        int budget = budgetOf(controller, handler);
+        assertThat(result.getResponse().getStatus())
+            .as("status (mode=fail rejects a request over its budget of %d)", budget)
+            .isEqualTo(200);
+        String count = result.getResponse().getHeader(QueryBudgetAdvice.QUERY_COUNT_HEADER);
+        assertThat(count).as(QueryBudgetAdvice.QUERY_COUNT_HEADER).isNotNull();
+        assertThat(Integer.parseInt(count)).isPositive().isLessThanOrEqualTo(budget);
+    }
+
+    private static int budgetOf(Class<?> controller, String handler) {
+        for (Method method : controller.getDeclaredMethods()) {
+            if (method.getName().equals(handler) && method.isAnnotationPresent(QueryBudget.class)) {
+                return method.getAnnotation(QueryBudget.class).value();
+            }
+        }
+        throw new IllegalStateException(controller.getSimpleName() + "." + handler + " declares no @QueryBudget");
+    }
+}